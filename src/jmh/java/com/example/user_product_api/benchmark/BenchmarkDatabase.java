@@ -0,0 +1,106 @@
+package com.example.user_product_api.benchmark;
+
+import org.flywaydb.core.Flyway;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+// Database-backed benchmarks run against a dedicated MySQL schema, migrated with the application's
+// Flyway scripts. Override the connection with -Dbench.datasource.url/username/password.
+final class BenchmarkDatabase {
+    static final String URL = System.getProperty("bench.datasource.url",
+            "jdbc:mysql://localhost:3306/crud_api_bench?createDatabaseIfNotExist=true&rewriteBatchedStatements=true");
+    static final String USERNAME = System.getProperty("bench.datasource.username", "root");
+    static final String PASSWORD = System.getProperty("bench.datasource.password", "password");
+
+    static final String[] WORDS = {
+            "wireless", "keyboard", "mouse", "monitor", "cable", "adapter", "charger", "laptop", "stand", "desk",
+            "lamp", "chair", "steel", "aluminium", "leather", "cotton", "portable", "compact", "premium", "basic",
+            "black", "white", "silver", "ergonomic", "gaming", "office", "travel", "bluetooth", "usb", "hdmi",
+            "speaker", "headphones", "microphone", "camera", "tripod", "battery", "solar", "kitchen", "garden", "tool"
+    };
+
+    private BenchmarkDatabase() {
+    }
+
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    }
+
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(URL, USERNAME, PASSWORD)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    static long ownerId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MIN(id) FROM users")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    static long countProducts(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM products")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    // Tops the products table up to the requested size with deterministic pseudo-random rows
+    static void seedProducts(long rows) throws SQLException {
+        try (Connection connection = connect()) {
+            long existing = countProducts(connection);
+            if (existing >= rows) {
+                return;
+            }
+            long ownerId = ownerId(connection);
+            Random random = new Random(existing);
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO products (name, description, price, stock, user_id, created_at, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (long i = existing; i < rows; i++) {
+                    insert.setString(1, words(random, 3));
+                    insert.setString(2, words(random, 40));
+                    insert.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(100000), 2));
+                    insert.setInt(4, random.nextInt(1000));
+                    insert.setLong(5, ownerId);
+                    insert.setTimestamp(6, now);
+                    insert.setTimestamp(7, now);
+                    insert.addBatch();
+                    if ((i + 1) % 5000 == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    static String words(Random random, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+}
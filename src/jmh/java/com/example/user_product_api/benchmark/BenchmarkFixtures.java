@@ -0,0 +1,44 @@
+package com.example.user_product_api.benchmark;
+
+import com.example.user_product_api.entity.Role;
+import com.example.user_product_api.entity.User;
+import com.example.user_product_api.security.JwtTokenProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+final class BenchmarkFixtures {
+    static final String USERNAME = "admin";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtTokenProvider tokenProvider() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "benchmark-secret-key-that-is-at-least-32-characters");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaximumSize", 10000L);
+        tokenProvider.init();
+        return tokenProvider;
+    }
+
+    static Authentication authentication() {
+        return new UsernamePasswordAuthenticationToken(USERNAME, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("Administrator");
+        user.setUsername(USERNAME);
+        user.setEmail("admin@example.com");
+        user.setPassword("$2a$10$oE39aG10kB/rFu2vQeCJTu/V/v4n6DRR0f8WyXRiAYvBpmadoOBE.");
+        user.setRoles(Set.of(new Role(1L, "ROLE_USER"), new Role(2L, "ROLE_ADMIN")));
+        return user;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.user_product_api.benchmark;
+
+import com.example.user_product_api.repository.UserRepository;
+import com.example.user_product_api.security.CustomUserDetailsService;
+import com.example.user_product_api.security.JwtAuthenticationFilter;
+import com.example.user_product_api.security.JwtTokenProvider;
+import com.example.user_product_api.security.TokenRevocationList;
+import com.example.user_product_api.security.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    // "database" loads the principal through UserPrincipalCache, "stateless" builds it from the claims
+    @Param({"database", "stateless"})
+    private String mode;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = BenchmarkFixtures.tokenProvider();
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findActiveByUsername(BenchmarkFixtures.USERNAME))
+                .thenReturn(Optional.of(BenchmarkFixtures.user()));
+
+        filter = new JwtAuthenticationFilter(
+                tokenProvider,
+                new CustomUserDetailsService(userRepository),
+                new UserPrincipalCache(10000, Duration.ofMinutes(5)),
+                new TokenRevocationList(86400000L),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "stateless", "stateless".equals(mode));
+
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + tokenProvider.generateToken(BenchmarkFixtures.authentication()));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> {
+        };
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.user_product_api.benchmark;
+
+import com.example.user_product_api.security.Pbkdf2IterationsPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one hash/verify per algorithm at the settings security.password.* can be tuned to:
+// "bcrypt:<strength>", "argon2:<memory KiB>:<iterations>:<parallelism>", "pbkdf2:<iterations>" (HMAC-SHA256)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+    private static final String PASSWORD = "admin123";
+
+    @Param({"bcrypt:10", "bcrypt:12", "argon2:19456:2:1", "argon2:65536:3:1", "pbkdf2:310000", "pbkdf2:600000"})
+    private String algorithm;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] settings = algorithm.split(":");
+        encoder = switch (settings[0]) {
+            case "bcrypt" -> new BCryptPasswordEncoder(Integer.parseInt(settings[1]));
+            case "argon2" -> new Argon2PasswordEncoder(16, 32, Integer.parseInt(settings[3]),
+                    Integer.parseInt(settings[1]), Integer.parseInt(settings[2]));
+            case "pbkdf2" -> new Pbkdf2IterationsPasswordEncoder(Integer.parseInt(settings[1]));
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        };
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
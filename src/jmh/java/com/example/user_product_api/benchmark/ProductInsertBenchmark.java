@@ -0,0 +1,142 @@
+package com.example.user_product_api.benchmark;
+
+import com.example.user_product_api.entity.Product;
+import com.example.user_product_api.entity.User;
+import com.example.user_product_api.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Rows/sec for 100k product inserts through ProductRepository.saveAll on Hibernate, in transactions of
+// 1000 rows with flush and clear like the product import. "pooled" is the application's mapping (product_seq
+// with allocationSize 50, JDBC batches of 50); "identity" maps the id back to GenerationType.IDENTITY with
+// identity-orm.xml, under which Hibernate inserts row by row. Same batching settings in both modes.
+// Requires MySQL, see BenchmarkDatabase.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ProductInsertBenchmark.ROWS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ProductInsertBenchmark {
+    static final int ROWS = 100_000;
+    private static final int CHUNK_SIZE = 1000;
+    private static final String NAME = "insert-benchmark";
+
+    @Param({"identity", "pooled"})
+    private String generator;
+
+    private HikariDataSource dataSource;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private ProductRepository productRepository;
+    private long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.migrate();
+        try (Connection connection = BenchmarkDatabase.connect();
+             Statement statement = connection.createStatement()) {
+            ownerId = BenchmarkDatabase.ownerId(connection);
+            // Rows seeded by other benchmarks use AUTO_INCREMENT, move the generator past them
+            statement.executeUpdate("UPDATE product_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM products)");
+        }
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(BenchmarkDatabase.URL);
+        dataSource.setUsername(BenchmarkDatabase.USERNAME);
+        dataSource.setPassword(BenchmarkDatabase.PASSWORD);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.example.user_product_api.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true"));
+        if ("identity".equals(generator)) {
+            factoryBean.setMappingResources("benchmark/identity-orm.xml");
+        }
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        productRepository = new JpaRepositoryFactory(entityManager).getRepository(ProductRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInsertedRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM products WHERE name = ?")) {
+            delete.setString(1, NAME);
+            delete.executeUpdate();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void saveAll() {
+        for (int start = 0; start < ROWS; start += CHUNK_SIZE) {
+            int first = start;
+            transactionTemplate.executeWithoutResult(status -> {
+                User owner = entityManager.getReference(User.class, ownerId);
+                List<Product> products = new ArrayList<>(CHUNK_SIZE);
+                for (int i = first; i < first + CHUNK_SIZE; i++) {
+                    products.add(product(i, owner));
+                }
+                productRepository.saveAll(products);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    private static Product product(int row, User owner) {
+        Product product = new Product();
+        product.setName(NAME);
+        product.setDescription("Row " + row);
+        product.setPrice(BigDecimal.TEN);
+        product.setStock(row % 100);
+        product.setCreatedBy(owner);
+        return product;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.user_product_api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Compares one listing request (first page plus its COUNT) using the old LIKE '%term%' predicate
+// against the FULLTEXT index. Requires MySQL; the table is seeded to "rows" products on first run.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductSearchBenchmark {
+    private static final String LIKE_PAGE = "SELECT * FROM products p WHERE p.deleted_at IS NULL " +
+            "AND (p.name LIKE ? OR p.description LIKE ?) LIMIT 10";
+    private static final String LIKE_COUNT = "SELECT COUNT(*) FROM products p WHERE p.deleted_at IS NULL " +
+            "AND (p.name LIKE ? OR p.description LIKE ?)";
+    private static final String FULLTEXT_PAGE = "SELECT * FROM products p WHERE p.deleted_at IS NULL " +
+            "AND MATCH(p.name, p.description) AGAINST (? IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(p.name, p.description) AGAINST (? IN BOOLEAN MODE) DESC, p.id LIMIT 10";
+    private static final String FULLTEXT_COUNT = "SELECT COUNT(*) FROM products p WHERE p.deleted_at IS NULL " +
+            "AND MATCH(p.name, p.description) AGAINST (? IN BOOLEAN MODE)";
+
+    @Param({"1000000"})
+    private long rows;
+
+    @Param({"ergonomic", "wireless keyboard"})
+    private String search;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.migrate();
+        BenchmarkDatabase.seedProducts(rows);
+        connection = BenchmarkDatabase.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void like(Blackhole blackhole) throws SQLException {
+        String pattern = "%" + search + "%";
+        query(blackhole, LIKE_PAGE, pattern, pattern);
+        query(blackhole, LIKE_COUNT, pattern, pattern);
+    }
+
+    @Benchmark
+    public void fullText(Blackhole blackhole) throws SQLException {
+        String query = "+" + search.replace(" ", "* +") + "*";
+        query(blackhole, FULLTEXT_PAGE, query, query);
+        query(blackhole, FULLTEXT_COUNT, query);
+    }
+
+    private void query(Blackhole blackhole, String sql, String... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    blackhole.consume(resultSet.getLong(1));
+                }
+            }
+        }
+    }
+}
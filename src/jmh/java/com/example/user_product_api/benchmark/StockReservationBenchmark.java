@@ -0,0 +1,203 @@
+package com.example.user_product_api.benchmark;
+
+import com.example.user_product_api.service.StockReservationBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Reservations/sec of one unit from a single hot product with 32 concurrent clients:
+// "conditional" is the single UPDATE ... WHERE stock >= ? used by ProductService.reserveStock,
+// "pessimistic" reads with SELECT ... FOR UPDATE and writes back, "optimistic" reads the version and
+// retries a versioned UPDATE until it wins, "buffered" goes through StockReservationBuffer (journaled,
+// flushed every second). Requires MySQL, see BenchmarkDatabase.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(32)
+@Fork(1)
+public class StockReservationBenchmark {
+    private static final String NAME = "stock-benchmark";
+
+    @State(Scope.Benchmark)
+    public static class HotProduct {
+        long productId;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            BenchmarkDatabase.migrate();
+            try (Connection connection = BenchmarkDatabase.connect();
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO products (name, price, stock, user_id, created_at, updated_at) " +
+                                 "VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                insert.setString(1, NAME);
+                insert.setBigDecimal(2, BigDecimal.TEN);
+                insert.setInt(3, Integer.MAX_VALUE);
+                insert.setLong(4, BenchmarkDatabase.ownerId(connection));
+                insert.setTimestamp(5, now);
+                insert.setTimestamp(6, now);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    productId = keys.getLong(1);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            try (Connection connection = BenchmarkDatabase.connect();
+                 PreparedStatement delete = connection.prepareStatement("DELETE FROM products WHERE name = ?")) {
+                delete.setString(1, NAME);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Buffer {
+        StockReservationBuffer buffer;
+        ScheduledExecutorService flusher;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                    BenchmarkDatabase.URL, BenchmarkDatabase.USERNAME, BenchmarkDatabase.PASSWORD));
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+            buffer = new StockReservationBuffer(jdbcTemplate, transactionTemplate, event -> {
+            });
+            ReflectionTestUtils.setField(buffer, "journalDirectory",
+                    Files.createTempDirectory("stock-journal").toString());
+            buffer.recover();
+
+            flusher = Executors.newSingleThreadScheduledExecutor();
+            flusher.scheduleWithFixedDelay(buffer::flush, 1, 1, TimeUnit.SECONDS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            flusher.shutdown();
+            buffer.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        Connection connection;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            connection = BenchmarkDatabase.connect();
+            connection.setAutoCommit(false);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int conditional(HotProduct product, Client client) throws SQLException {
+        try (PreparedStatement update = client.connection.prepareStatement(
+                "UPDATE products SET stock = stock - ?, version = version + 1, updated_at = ? " +
+                        "WHERE id = ? AND deleted_at IS NULL AND stock >= ?")) {
+            update.setInt(1, 1);
+            update.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            update.setLong(3, product.productId);
+            update.setInt(4, 1);
+            int updated = update.executeUpdate();
+            client.connection.commit();
+            return updated;
+        }
+    }
+
+    @Benchmark
+    public int pessimistic(HotProduct product, Client client) throws SQLException {
+        int stock;
+        try (PreparedStatement select = client.connection.prepareStatement(
+                "SELECT stock FROM products WHERE id = ? AND deleted_at IS NULL FOR UPDATE")) {
+            select.setLong(1, product.productId);
+            try (ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                stock = resultSet.getInt(1);
+            }
+        }
+        try (PreparedStatement update = client.connection.prepareStatement(
+                "UPDATE products SET stock = ?, version = version + 1, updated_at = ? WHERE id = ?")) {
+            update.setInt(1, stock - 1);
+            update.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            update.setLong(3, product.productId);
+            int updated = update.executeUpdate();
+            client.connection.commit();
+            return updated;
+        }
+    }
+
+    @Benchmark
+    public int buffered(HotProduct product, Buffer buffer) {
+        return buffer.buffer.reserve(product.productId, 1);
+    }
+
+    // What Hibernate does for a managed entity with @Version, plus the retry a caller would need
+    @Benchmark
+    public int optimistic(HotProduct product, Client client) throws SQLException {
+        while (true) {
+            int stock;
+            long version;
+            try (PreparedStatement select = client.connection.prepareStatement(
+                    "SELECT stock, version FROM products WHERE id = ? AND deleted_at IS NULL")) {
+                select.setLong(1, product.productId);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                    stock = resultSet.getInt(1);
+                    version = resultSet.getLong(2);
+                }
+            }
+            try (PreparedStatement update = client.connection.prepareStatement(
+                    "UPDATE products SET stock = ?, version = ?, updated_at = ? WHERE id = ? AND version = ?")) {
+                update.setInt(1, stock - 1);
+                update.setLong(2, version + 1);
+                update.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                update.setLong(4, product.productId);
+                update.setLong(5, version);
+                int updated = update.executeUpdate();
+                client.connection.commit();
+                if (updated == 1) {
+                    return updated;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+// k6 scenario for the virtual-threads comparison: VUS concurrent clients, each on its own keep-alive
+// connection, read the product catalog through the authenticated listing and by-id endpoints.
+// Started by run.sh; can also be run alone:
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=1000 -e DURATION=2m src/loadtest/products.js
+import http from 'k6/http';
+import { check, fail } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PRODUCTS = 200;
+
+export const options = {
+    scenarios: {
+        catalog: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 1000),
+            duration: __ENV.DURATION || '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    setupTimeout: '2m',
+};
+
+// Logs in as the seeded admin once and makes sure there is a catalog to read
+export function setup() {
+    const login = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ username: 'admin', password: 'admin123' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    if (login.status !== 200) {
+        fail(`login failed with status ${login.status}`);
+    }
+    const params = {
+        headers: {
+            'Authorization': `Bearer ${login.json('data.accessToken')}`,
+            'Content-Type': 'application/json',
+        },
+    };
+
+    const ids = [];
+    for (let i = 0; i < PRODUCTS; i++) {
+        const created = http.post(`${BASE_URL}/api/products`, JSON.stringify({
+            name: `Load test product ${i}`,
+            description: 'Created by src/loadtest/products.js',
+            price: 9.99,
+            stock: 1000,
+        }), params);
+        if (created.status !== 200) {
+            fail(`product creation failed with status ${created.status}`);
+        }
+        ids.push(created.json('data.id'));
+    }
+    return { params, ids };
+}
+
+export default function (data) {
+    const res = Math.random() < 0.8
+        ? http.get(`${BASE_URL}/api/products?page=0&size=20&count=approximate`, data.params)
+        : http.get(`${BASE_URL}/api/products/${data.ids[Math.floor(Math.random() * data.ids.length)]}`, data.params);
+    check(res, { 'status is 200': (r) => r.status === 200 });
+}
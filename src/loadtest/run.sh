@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Platform vs virtual threads under 1k-10k concurrent connections (see README.md in this directory).
+# Needs JDK 21, k6 and the MySQL configured in application.properties, with "ulimit -n" above 20000.
+#
+#   src/loadtest/run.sh platform
+#   src/loadtest/run.sh virtual
+#
+# Both modes use the pool and connector settings of application-virtual-threads.properties, so the only
+# difference is spring.threads.virtual.enabled. Summaries go to target/loadtest/<mode>-<vus>.json.
+set -euo pipefail
+
+MODE=${1:?usage: run.sh platform|virtual}
+LEVELS=${LEVELS:-"1000 5000 10000"}
+DURATION=${DURATION:-2m}
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/target/loadtest"
+
+case "$MODE" in
+    platform) PROFILE_ARGS=(--spring.threads.virtual.enabled=false) ;;
+    virtual) PROFILE_ARGS=(--spring.profiles.active=virtual-threads) ;;
+    *) echo "unknown mode: $MODE" >&2; exit 1 ;;
+esac
+
+cd "$ROOT"
+./mvnw -B -q -Pjava21 -DskipTests package
+mkdir -p "$OUT"
+
+for VUS in $LEVELS; do
+    java -jar target/user-product-api-0.0.1-SNAPSHOT.jar \
+        --spring.datasource.hikari.maximum-pool-size=40 \
+        --spring.datasource.hikari.minimum-idle=40 \
+        --spring.datasource.hikari.connection-timeout=5000 \
+        --server.tomcat.max-connections=10000 \
+        --server.tomcat.accept-count=1000 \
+        "${PROFILE_ARGS[@]}" > "$OUT/$MODE-$VUS.log" 2>&1 &
+    APP=$!
+    trap 'kill $APP 2>/dev/null || true' EXIT
+
+    # Wait for the data seeder, which runs after the ports are already open
+    until grep -q "Started UserProductApiApplication" "$OUT/$MODE-$VUS.log"; do
+        kill -0 $APP
+        sleep 1
+    done
+
+    k6 run -e VUS="$VUS" -e DURATION="$DURATION" \
+        --summary-export "$OUT/$MODE-$VUS.json" src/loadtest/products.js
+
+    kill $APP
+    wait $APP || true
+done
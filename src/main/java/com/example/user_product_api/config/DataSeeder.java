@@ -2,15 +2,18 @@ package com.example.user_product_api.config;
 
 import com.example.user_product_api.entity.Role;
 import com.example.user_product_api.entity.User;
+import com.example.user_product_api.event.RolesChangedEvent;
 import com.example.user_product_api.repository.RoleRepository;
 import com.example.user_product_api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @Component
@@ -19,6 +22,7 @@ public class DataSeeder implements CommandLineRunner {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public void run(String... args) throws Exception {
@@ -41,6 +45,7 @@ public class DataSeeder implements CommandLineRunner {
         adminRole.setName("ROLE_ADMIN");
         roleRepository.save(adminRole);
 
+        eventPublisher.publishEvent(new RolesChangedEvent(List.of(userRole.getName(), adminRole.getName())));
         System.out.println("Roles seeded successfully");
     }
 
@@ -0,0 +1,16 @@
+package com.example.user_product_api.config;
+
+import com.example.user_product_api.dto.FieldSelection;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // DTOs filtered by FieldSelection are written in full unless a response narrows them
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+        return builder -> builder.filters(FieldSelection.ALL_FIELDS);
+    }
+}
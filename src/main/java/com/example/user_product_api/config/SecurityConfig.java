@@ -1,49 +1,72 @@
 package com.example.user_product_api.config;
 
-import com.example.user_product_api.security.CustomUserDetailsService;
 import com.example.user_product_api.security.JwtAuthenticationEntryPoint;
 import com.example.user_product_api.security.JwtAuthenticationFilter;
+import com.example.user_product_api.security.Pbkdf2IterationsPasswordEncoder;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
-    private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
-    @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
-    }
+    @Value("${management.server.port}")
+    private int managementPort;
+
+    @Value("${security.password.algorithm}")
+    private String passwordAlgorithm;
+
+    @Value("${security.password.bcrypt.strength}")
+    private int bcryptStrength;
+
+    @Value("${security.password.argon2.memory-kib}")
+    private int argon2MemoryKib;
 
+    @Value("${security.password.argon2.iterations}")
+    private int argon2Iterations;
+
+    @Value("${security.password.argon2.parallelism}")
+    private int argon2Parallelism;
+
+    @Value("${security.password.pbkdf2.iterations}")
+    private int pbkdf2Iterations;
+
+    // New hashes are written as "{algorithm}hash" with the configured algorithm; any supported algorithm
+    // still verifies. Hashes stored before the prefix was introduced are plain BCrypt.
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        encoders.put("pbkdf2", new Pbkdf2IterationsPasswordEncoder(pbkdf2Iterations));
+        if (!encoders.containsKey(passwordAlgorithm)) {
+            throw new IllegalStateException("Unsupported security.password.algorithm: " + passwordAlgorithm);
+        }
 
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
-        return authConfig.getAuthenticationManager();
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordAlgorithm, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return passwordEncoder;
     }
 
     @Bean
@@ -58,13 +81,20 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth ->
                         auth
+                                // Streaming responses finish on an async dispatch, the original request was already authorized
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/auth/**").permitAll()
+                                // Probed and scraped without a token, on the management port only; keep that port
+                                // off the public network
+                                .requestMatchers(request -> request.getLocalPort() == managementPort
+                                        && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                                 .requestMatchers("/api/users/**").hasRole("ADMIN")
                                 .requestMatchers("/api/products/**").authenticated()
                                 .anyRequest().authenticated()
                 );
 
-        http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
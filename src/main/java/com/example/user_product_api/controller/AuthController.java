@@ -6,47 +6,41 @@ import com.example.user_product_api.dto.auth.TokenResponse;
 import com.example.user_product_api.dto.user.UserCreateDto;
 import com.example.user_product_api.dto.user.UserDto;
 import com.example.user_product_api.security.JwtTokenProvider;
+import com.example.user_product_api.security.PasswordAuthenticator;
 import com.example.user_product_api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
-    private final AuthenticationManager authenticationManager;
+    private final PasswordAuthenticator passwordAuthenticator;
     private final JwtTokenProvider tokenProvider;
     private final UserService userService;
 
+    // The password check runs on the password hashing pool; the request thread is released meanwhile
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<TokenResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        String jwt = tokenProvider.generateToken(authentication);
-        TokenResponse tokenResponse = new TokenResponse(jwt, 86400000L);
+    public CompletableFuture<ResponseEntity<ApiResponse<TokenResponse>>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return passwordAuthenticator.authenticate(loginRequest.getUsername(), loginRequest.getPassword())
+                .thenApply(authentication -> {
+                    String jwt = tokenProvider.generateToken(authentication);
+                    TokenResponse tokenResponse = new TokenResponse(jwt, 86400000L);
 
-        return ResponseEntity.ok(ApiResponse.success("Login successful", tokenResponse));
+                    return ResponseEntity.ok(ApiResponse.success("Login successful", tokenResponse));
+                });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<UserDto>> register(@Valid @RequestBody UserCreateDto userCreateDto) {
-        UserDto userDto = userService.createUser(userCreateDto);
-        return ResponseEntity.ok(ApiResponse.success("User registered successfully", userDto));
+    public CompletableFuture<ResponseEntity<ApiResponse<UserDto>>> register(@Valid @RequestBody UserCreateDto userCreateDto) {
+        return userService.createUser(userCreateDto)
+                .thenApply(userDto -> ResponseEntity.ok(ApiResponse.success("User registered successfully", userDto)));
     }
 }
@@ -1,35 +1,93 @@
 package com.example.user_product_api.controller;
 
 import com.example.user_product_api.dto.ApiResponse;
+import com.example.user_product_api.dto.CountMode;
+import com.example.user_product_api.dto.CursorPagedResponse;
+import com.example.user_product_api.dto.ExportFormat;
+import com.example.user_product_api.dto.FieldSelection;
 import com.example.user_product_api.dto.PagedResponse;
+import com.example.user_product_api.dto.product.ProductBatchDeleteDto;
+import com.example.user_product_api.dto.product.ProductBatchResult;
+import com.example.user_product_api.dto.product.ProductBatchUpdateDto;
 import com.example.user_product_api.dto.product.ProductCreateDto;
 import com.example.user_product_api.dto.product.ProductDto;
+import com.example.user_product_api.dto.product.ProductImportResult;
 import com.example.user_product_api.dto.product.ProductUpdateDto;
+import com.example.user_product_api.dto.product.ProductVersion;
+import com.example.user_product_api.dto.product.StockReservationDto;
+import com.example.user_product_api.service.ProductBatchService;
+import com.example.user_product_api.service.ProductExportService;
+import com.example.user_product_api.service.ProductImportService;
 import com.example.user_product_api.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final ProductBatchService productBatchService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<PagedResponse<ProductDto>>> getAllProducts(
+    public ResponseEntity<MappingJacksonValue> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "exact") String count,
+            @RequestParam(required = false) String fields) {
+
+        FieldSelection fieldSelection = FieldSelection.fromParameter(fields, ProductDto.class);
+        PagedResponse<ProductDto> pagedResponse = productService.getAllProducts(
+                page, size, search, CountMode.fromParameter(count), fieldSelection);
+        return ResponseEntity.ok(fieldSelection.applyTo(ApiResponse.success(pagedResponse)));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<ProductDto>>> getProductsAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search) {
 
-        PagedResponse<ProductDto> pagedResponse = productService.getAllProducts(page, size, search);
-        return ResponseEntity.ok(ApiResponse.success(pagedResponse));
+        CursorPagedResponse<ProductDto> cursorPagedResponse = productService.getProductsAfter(cursor, size, search);
+        return ResponseEntity.ok(ApiResponse.success(cursorPagedResponse));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        StreamingResponseBody body = outputStream -> productExportService.exportProducts(exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductDto>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ProductDto>> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        // checkNotModified also sets ETag and Last-Modified. The product is read afterwards, so the body is
+        // never older than the ETag it goes out with.
+        ProductVersion version = productService.getProductVersion(id);
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
+
         ProductDto productDto = productService.getProductById(id);
         return ResponseEntity.ok(ApiResponse.success(productDto));
     }
@@ -40,6 +98,34 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Product created successfully", productDto));
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ProductImportResult>> importProducts(HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf("text/csv"));
+        ProductImportResult result = csv
+                ? productImportService.importCsv(request.getInputStream())
+                : productImportService.importNdjson(request.getInputStream());
+
+        String message = "Imported " + result.getImported() + " of " + result.getTotal() + " products";
+        return ResponseEntity.ok(ApiResponse.success(message, result));
+    }
+
+    @PatchMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ProductBatchResult>> updateProducts(
+            @Valid @RequestBody ProductBatchUpdateDto productBatchUpdateDto) {
+        ProductBatchResult result = productBatchService.updateProducts(productBatchUpdateDto.getItems());
+        return ResponseEntity.ok(ApiResponse.success("Updated " + result.getSucceeded() + " products", result));
+    }
+
+    @DeleteMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ProductBatchResult>> deleteProducts(
+            @Valid @RequestBody ProductBatchDeleteDto productBatchDeleteDto) {
+        ProductBatchResult result = productBatchService.deleteProducts(productBatchDeleteDto.getIds());
+        return ResponseEntity.ok(ApiResponse.success("Deleted " + result.getSucceeded() + " products", result));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<ProductDto>> updateProduct(
@@ -50,6 +136,26 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Product updated successfully", productDto));
     }
 
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<ApiResponse<ProductDto>> reserveStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockReservationDto stockReservationDto) {
+
+        ProductDto productDto = productService.reserveStock(id, stockReservationDto.getQuantity());
+        return ResponseEntity.ok(ApiResponse.success("Stock reserved successfully", productDto));
+    }
+
+    // Not tied to an earlier reservation, so only admins may put stock back
+    @PostMapping("/{id}/stock/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ProductDto>> releaseStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockReservationDto stockReservationDto) {
+
+        ProductDto productDto = productService.releaseStock(id, stockReservationDto.getQuantity());
+        return ResponseEntity.ok(ApiResponse.success("Stock released successfully", productDto));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Void>> deleteProduct(@PathVariable Long id) {
@@ -1,6 +1,9 @@
 package com.example.user_product_api.controller;
 
 import com.example.user_product_api.dto.ApiResponse;
+import com.example.user_product_api.dto.CountMode;
+import com.example.user_product_api.dto.CursorPagedResponse;
+import com.example.user_product_api.dto.FieldSelection;
 import com.example.user_product_api.dto.PagedResponse;
 import com.example.user_product_api.dto.user.UserCreateDto;
 import com.example.user_product_api.dto.user.UserDto;
@@ -9,9 +12,12 @@ import com.example.user_product_api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -20,13 +26,28 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<PagedResponse<UserDto>>> getAllUsers(
+    public ResponseEntity<MappingJacksonValue> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "exact") String count,
+            @RequestParam(required = false) String fields) {
+
+        FieldSelection fieldSelection = FieldSelection.fromParameter(fields, UserDto.class);
+        PagedResponse<UserDto> pagedResponse = userService.getAllUsers(
+                page, size, search, CountMode.fromParameter(count), fieldSelection);
+        return ResponseEntity.ok(fieldSelection.applyTo(ApiResponse.success(pagedResponse)));
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<UserDto>>> getUsersAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search) {
 
-        PagedResponse<UserDto> pagedResponse = userService.getAllUsers(page, size, search);
-        return ResponseEntity.ok(ApiResponse.success(pagedResponse));
+        CursorPagedResponse<UserDto> cursorPagedResponse = userService.getUsersAfter(cursor, size, search);
+        return ResponseEntity.ok(ApiResponse.success(cursorPagedResponse));
     }
 
     @GetMapping("/{id}")
@@ -38,9 +59,9 @@ public class UserController {
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<UserDto>> createUser(@Valid @RequestBody UserCreateDto userCreateDto) {
-        UserDto userDto = userService.createUser(userCreateDto);
-        return ResponseEntity.ok(ApiResponse.success("User created successfully", userDto));
+    public CompletableFuture<ResponseEntity<ApiResponse<UserDto>>> createUser(@Valid @RequestBody UserCreateDto userCreateDto) {
+        return userService.createUser(userCreateDto)
+                .thenApply(userDto -> ResponseEntity.ok(ApiResponse.success("User created successfully", userDto)));
     }
 
     @PutMapping("/{id}")
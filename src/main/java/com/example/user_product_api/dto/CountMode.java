@@ -0,0 +1,21 @@
+package com.example.user_product_api.dto;
+
+import com.example.user_product_api.exception.BadRequestException;
+
+import java.util.Locale;
+
+// How listing endpoints compute totals: EXACT runs a COUNT query, NONE only reports whether there is
+// a next page, APPROXIMATE reuses a recently cached count for the same search
+public enum CountMode {
+    EXACT,
+    NONE,
+    APPROXIMATE;
+
+    public static CountMode fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid count mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.user_product_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Keyset pagination: the next page seeks past the last seen id, so deep pages cost the same as the first one
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPagedResponse<T> {
+    // Keeps every cursor page a short index range seek
+    public static final int MAX_SIZE = 100;
+
+    private List<T> data;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+}
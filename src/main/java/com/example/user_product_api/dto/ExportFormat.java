@@ -0,0 +1,29 @@
+package com.example.user_product_api.dto;
+
+import com.example.user_product_api.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(MediaType.valueOf("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid export format: " + value);
+        }
+    }
+}
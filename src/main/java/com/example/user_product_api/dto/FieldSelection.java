@@ -0,0 +1,67 @@
+package com.example.user_product_api.dto;
+
+import com.example.user_product_api.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Sparse fieldsets for listing endpoints: ?fields=name,price keeps only those properties of each item,
+// plus the id. Items opt in with @JsonFilter(FILTER_ID); without the parameter they are written in full.
+public final class FieldSelection {
+    public static final String FILTER_ID = "fieldSelection";
+    public static final FilterProvider ALL_FIELDS = new SimpleFilterProvider()
+            .addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll());
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection fromParameter(String value, Class<?> itemType) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> available = Arrays.stream(itemType.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("id");
+        for (String field : value.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!available.contains(name)) {
+                throw new BadRequestException("Unknown field: " + name);
+            }
+            fields.add(name);
+        }
+        return new FieldSelection(fields);
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public MappingJacksonValue applyTo(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+}
@@ -3,9 +3,13 @@ package com.example.user_product_api.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
+// exact() comes from a Page and its COUNT(*); uncounted() and approximate() come from a Slice, which fetches
+// one extra row to detect the next page instead of running COUNT(*)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -13,7 +17,33 @@ public class PagedResponse<T> {
     private List<T> data;
     private int page;
     private int size;
+    // -1 when the total was not counted
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private boolean totalExact;
+
+    public static <T> PagedResponse<T> exact(Page<?> page, List<T> data) {
+        return new PagedResponse<>(
+                data,
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isLast(),
+                true
+        );
+    }
+
+    public static <T> PagedResponse<T> uncounted(Slice<?> slice, List<T> data) {
+        return new PagedResponse<>(data, slice.getNumber(), slice.getSize(), -1, -1, slice.isLast(), false);
+    }
+
+    public static <T> PagedResponse<T> approximate(Slice<?> slice, List<T> data, long estimatedTotal) {
+        // Never report fewer elements than this slice proves to exist
+        long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        long totalElements = Math.max(estimatedTotal, seen);
+        int totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize());
+        return new PagedResponse<>(data, slice.getNumber(), slice.getSize(), totalElements, totalPages, slice.isLast(), false);
+    }
 }
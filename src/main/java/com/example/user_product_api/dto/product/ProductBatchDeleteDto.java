@@ -0,0 +1,19 @@
+package com.example.user_product_api.dto.product;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchDeleteDto {
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 10000, message = "At most 10000 products can be deleted at once")
+    private List<@NotNull Long> ids;
+}
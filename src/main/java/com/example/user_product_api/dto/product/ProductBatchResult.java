@@ -0,0 +1,31 @@
+package com.example.user_product_api.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchResult {
+    private long succeeded;
+    private long notFound;
+    private List<Outcome> outcomes = new ArrayList<>();
+
+    public enum Status {
+        UPDATED,
+        DELETED,
+        NOT_FOUND
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Outcome {
+        private Long id;
+        private Status status;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.user_product_api.dto.product;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchUpdateDto {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 10000, message = "At most 10000 items can be updated at once")
+    private List<@Valid Item> items;
+
+    // Fields left null are not changed
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        @NotNull(message = "Product id is required")
+        private Long id;
+
+        @Min(value = 0, message = "Price must be greater than or equal to 0")
+        @Digits(integer = 8, fraction = 2, message = "Price must have at most 8 integer digits and 2 decimals")
+        private BigDecimal price;
+
+        @Min(value = 0, message = "Stock must be greater than or equal to 0")
+        private Integer stock;
+
+        @AssertTrue(message = "Price or stock is required")
+        public boolean isChangePresent() {
+            return price != null || stock != null;
+        }
+    }
+}
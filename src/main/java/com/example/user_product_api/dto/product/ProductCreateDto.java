@@ -1,8 +1,10 @@
 package com.example.user_product_api.dto.product;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,12 +15,14 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 public class ProductCreateDto {
     @NotBlank(message = "Product name is required")
+    @Size(max = 255, message = "Product name must be at most 255 characters")
     private String name;
 
     private String description;
 
     @NotNull(message = "Price is required")
     @Min(value = 0, message = "Price must be greater than or equal to 0")
+    @Digits(integer = 8, fraction = 2, message = "Price must have at most 8 integer digits and 2 decimals")
     private BigDecimal price;
 
     @NotNull(message = "Stock is required")
@@ -1,5 +1,7 @@
 package com.example.user_product_api.dto.product;
 
+import com.example.user_product_api.dto.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +12,7 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class ProductDto {
     private Long id;
     private String name;
@@ -20,4 +23,10 @@ public class ProductDto {
     private String createdByName;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Listing projection that leaves out the description column
+    public ProductDto(Long id, String name, BigDecimal price, Integer stock, Long createdById, String createdByName,
+                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, null, price, stock, createdById, createdByName, createdAt, updatedAt);
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.user_product_api.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResult {
+    private long total;
+    private long imported;
+    private long failed;
+    // Only the first errors are listed, "failed" always has the full count
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.user_product_api.dto.product;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// What a product response depends on: the product row's version and, for the creator's name, the
+// creator's last update. Enough to answer a conditional GET without reading the product itself.
+@Value
+public class ProductVersion {
+    Long id;
+    Long version;
+    LocalDateTime updatedAt;
+    LocalDateTime creatorUpdatedAt;
+
+    // Uses the version rather than updatedAt, which the database keeps to the second
+    public String getETag() {
+        return "\"" + id + "-" + version + "-" + toEpochMilli(creatorUpdatedAt) + "\"";
+    }
+
+    public long getLastModified() {
+        return Math.max(toEpochMilli(updatedAt), toEpochMilli(creatorUpdatedAt));
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.user_product_api.dto.user;
 
+import com.example.user_product_api.dto.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +12,7 @@ import java.util.Set;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class UserDto {
     private Long id;
     private String name;
@@ -18,4 +21,9 @@ public class UserDto {
     private Set<String> roles;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Listing projection that leaves out the roles, which would otherwise be loaded per user
+    public UserDto(Long id, String name, String username, String email, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, username, email, null, createdAt, updatedAt);
+    }
 }
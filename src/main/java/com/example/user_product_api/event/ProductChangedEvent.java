@@ -0,0 +1,27 @@
+package com.example.user_product_api.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.List;
+
+// Published by product writes; caches of product data listen to it after commit
+@Value
+public class ProductChangedEvent {
+    Collection<Long> productIds;
+    // Set when the stock buffer applies its own journal; its counters already include those changes
+    boolean stockFlush;
+
+    public ProductChangedEvent(Collection<Long> productIds) {
+        this(productIds, false);
+    }
+
+    public ProductChangedEvent(Collection<Long> productIds, boolean stockFlush) {
+        this.productIds = productIds;
+        this.stockFlush = stockFlush;
+    }
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(List.of(productId));
+    }
+}
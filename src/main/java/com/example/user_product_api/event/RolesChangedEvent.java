@@ -0,0 +1,10 @@
+package com.example.user_product_api.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+
+@Value
+public class RolesChangedEvent {
+    Collection<String> roleNames;
+}
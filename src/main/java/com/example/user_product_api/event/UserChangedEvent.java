@@ -0,0 +1,22 @@
+package com.example.user_product_api.event;
+
+import lombok.Value;
+
+// Published by UserService whenever a user's state changes; listeners run after commit
+@Value
+public class UserChangedEvent {
+    Long userId;
+    String username;
+    Type type;
+
+    public enum Type {
+        UPDATED,
+        ROLES_CHANGED,
+        DELETED
+    }
+
+    // Role changes and deletions invalidate the claims carried by already issued tokens
+    public boolean invalidatesTokens() {
+        return type == Type.ROLES_CHANGED || type == Type.DELETED;
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.user_product_api.exception;
 
 import com.example.user_product_api.dto.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -25,6 +27,43 @@ public class GlobalExceptionHandler {
                 HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<?>> handleBadRequestException(
+            BadRequestException exception,
+            WebRequest request) {
+        return new ResponseEntity<>(
+                ApiResponse.error(HttpStatus.BAD_REQUEST.value(), exception.getMessage()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<?>> handleConflictException(
+            ConflictException exception,
+            WebRequest request) {
+        return new ResponseEntity<>(
+                ApiResponse.error(HttpStatus.CONFLICT.value(), exception.getMessage()),
+                HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handleServiceUnavailableException(
+            ServiceUnavailableException exception,
+            WebRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getMessage()));
+    }
+
+    // Another writer changed the row between our read and our versioned UPDATE
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<?>> handleOptimisticLockingFailureException(
+            ObjectOptimisticLockingFailureException exception,
+            WebRequest request) {
+        return new ResponseEntity<>(
+                ApiResponse.error(HttpStatus.CONFLICT.value(), "The resource was modified concurrently, please retry"),
+                HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
@@ -0,0 +1,96 @@
+package com.example.user_product_api.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+// Counts the SQL statements and database time of each request, logs requests that go over the statement
+// or latency budget and reports the database share in a Server-Timing header. Runs ahead of the security
+// filters so the principal lookup is counted too.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    @Value("${monitoring.sql.statement-budget}")
+    private int statementBudget;
+
+    @Value("${monitoring.sql.latency-budget-ms}")
+    private long latencyBudgetMillis;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        SqlStatistics statistics = SqlStatistics.begin();
+        try {
+            filterChain.doFilter(request, new ServerTimingResponse(response, statistics, start));
+        } finally {
+            SqlStatistics.end();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (statistics.getStatements() > statementBudget || elapsedMillis > latencyBudgetMillis) {
+                logger.warn(String.format(Locale.ROOT,
+                        "%s %s exceeded its budget: status %d, %d ms, %d SQL statements taking %d ms, slowest %d ms: %s",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMillis,
+                        statistics.getStatements(), statistics.getNanos() / 1_000_000,
+                        statistics.getSlowestNanos() / 1_000_000, abbreviate(statistics.getSlowestSql())));
+            }
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        if (sql == null || sql.length() <= MAX_LOGGED_SQL_LENGTH) {
+            return sql;
+        }
+        return sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+
+    // Headers can't be added once the body starts, so the timing is taken when the body is first requested.
+    // By then the controller has done its queries; anything loaded while the body is written is not included.
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final SqlStatistics statistics;
+        private final long start;
+        private boolean timingAdded;
+
+        private ServerTimingResponse(HttpServletResponse response, SqlStatistics statistics, long start) {
+            super(response);
+            this.statistics = statistics;
+            this.start = start;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        private void addServerTiming() {
+            if (timingAdded || isCommitted()) {
+                return;
+            }
+            timingAdded = true;
+            double dbMillis = statistics.getNanos() / 1e6;
+            double appMillis = Math.max(0, (System.nanoTime() - start) / 1e6 - dbMillis);
+            setHeader("Server-Timing", String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d statements\", app;dur=%.1f",
+                    dbMillis, statistics.getStatements(), appMillis));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.user_product_api.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registered through hibernate.session_factory.statement_inspector; remembers the SQL about to be
+// prepared so the statement that follows can be reported if it turns out to be the slowest
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.prepared(sql);
+        }
+        return sql;
+    }
+}
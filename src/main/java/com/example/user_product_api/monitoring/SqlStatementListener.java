@@ -0,0 +1,35 @@
+package com.example.user_product_api.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+// Registered through hibernate.session.events.auto, Hibernate creates one per session
+public class SqlStatementListener implements SessionEventListener {
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void record() {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.executed(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.user_product_api.monitoring;
+
+// SQL executed through Hibernate on the thread serving the current request. SqlBudgetFilter opens it,
+// SqlStatementInspector and SqlStatementListener fill it in. Statements run on other threads (async
+// completions, the password hashing pool, scheduled jobs) are not attributed to any request.
+final class SqlStatistics {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+    private long slowestNanos;
+    private String slowestSql;
+    private String pendingSql;
+
+    static SqlStatistics begin() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    void prepared(String sql) {
+        pendingSql = sql;
+    }
+
+    // A JDBC batch is one round trip and counts as one statement
+    void executed(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        if (elapsedNanos > slowestNanos) {
+            slowestNanos = elapsedNanos;
+            slowestSql = pendingSql;
+        }
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+
+    long getSlowestNanos() {
+        return slowestNanos;
+    }
+
+    String getSlowestSql() {
+        return slowestSql;
+    }
+}
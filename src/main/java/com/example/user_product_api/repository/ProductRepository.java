@@ -1,14 +1,139 @@
 package com.example.user_product_api.repository;
 
+import com.example.user_product_api.dto.product.ProductDto;
+import com.example.user_product_api.dto.product.ProductVersion;
 import com.example.user_product_api.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    @Query("SELECT p FROM Product p WHERE p.deletedAt IS NULL " +
-            "AND (p.name LIKE %:search% OR p.description LIKE %:search%)")
-    Page<Product> findAllActiveProducts(@Param("search") String search, Pageable pageable);
+    // Reads exactly the columns ProductDto needs, including the creator's id and name, in one statement
+    String SELECT_PRODUCT_DTO = "SELECT new com.example.user_product_api.dto.product.ProductDto(" +
+            "p.id, p.name, p.description, p.price, p.stock, u.id, u.name, p.createdAt, p.updatedAt) " +
+            "FROM Product p JOIN p.createdBy u ";
+
+    // Same as SELECT_PRODUCT_DTO without the description, for listings that don't show it
+    String SELECT_PRODUCT_SUMMARY = "SELECT new com.example.user_product_api.dto.product.ProductDto(" +
+            "p.id, p.name, p.price, p.stock, u.id, u.name, p.createdAt, p.updatedAt) " +
+            "FROM Product p JOIN p.createdBy u ";
+
+    @Query(value = SELECT_PRODUCT_DTO + "WHERE p.deletedAt IS NULL ORDER BY p.id",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.deletedAt IS NULL")
+    Page<ProductDto> findAllActiveProducts(Pageable pageable);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.deletedAt IS NULL ORDER BY p.id")
+    Slice<ProductDto> findActiveProductsSlice(Pageable pageable);
+
+    @Query(value = SELECT_PRODUCT_SUMMARY + "WHERE p.deletedAt IS NULL ORDER BY p.id",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.deletedAt IS NULL")
+    Page<ProductDto> findAllActiveProductSummaries(Pageable pageable);
+
+    @Query(SELECT_PRODUCT_SUMMARY + "WHERE p.deletedAt IS NULL ORDER BY p.id")
+    Slice<ProductDto> findActiveProductSummariesSlice(Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.deletedAt IS NULL")
+    long countActiveProducts();
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.deletedAt IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findActiveProductsAfter(@Param("afterId") long afterId, Limit limit);
+
+    // A fetch size of Integer.MIN_VALUE makes Connector/J stream this result set row by row instead of
+    // buffering it, without switching the whole pool to server-side cursors. The connection can't run another
+    // statement until the stream is closed: consume and close it inside a transaction that queries nothing else.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.deletedAt IS NULL ORDER BY p.id")
+    Stream<ProductDto> streamActiveProducts();
+
+    @Query("SELECT p FROM Product p WHERE p.id = :id AND p.deletedAt IS NULL")
+    Optional<Product> findActiveById(@Param("id") Long id);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.id = :id AND p.deletedAt IS NULL")
+    Optional<ProductDto> findActiveProductDtoById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.user_product_api.dto.product.ProductVersion(p.id, p.version, p.updatedAt, u.updatedAt) " +
+            "FROM Product p JOIN p.createdBy u WHERE p.id = :id AND p.deletedAt IS NULL")
+    Optional<ProductVersion> findActiveProductVersionById(@Param("id") Long id);
+
+    @Query(SELECT_PRODUCT_DTO + "WHERE p.id IN :ids")
+    List<ProductDto> findProductDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_PRODUCT_SUMMARY + "WHERE p.id IN :ids")
+    List<ProductDto> findProductSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Locks the rows so the outcome reported for each id matches what the following bulk UPDATE changed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    List<Long> lockActiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Null parameters leave the column unchanged
+    @Modifying
+    @Query("UPDATE Product p SET p.price = COALESCE(:price, p.price), p.stock = COALESCE(:stock, p.stock), " +
+            "p.version = p.version + 1, p.updatedAt = :now WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    int updatePriceAndStockByIdIn(@Param("ids") Collection<Long> ids, @Param("price") BigDecimal price,
+                                  @Param("stock") Integer stock, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.deletedAt = :now, p.version = p.version + 1, p.updatedAt = :now " +
+            "WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Check and decrement in one statement, so concurrent reservations can't oversell; returns 0 when the
+    // product is missing, deleted or short on stock
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.version = p.version + 1, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.deletedAt IS NULL AND p.stock >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    // Returns 0 when the product is missing, deleted or the stock would overflow the column
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.version = p.version + 1, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.deletedAt IS NULL AND p.stock <= 2147483647 - :quantity")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(p) > 0 FROM Product p WHERE p.id = :id AND p.deletedAt IS NULL")
+    boolean existsActiveById(@Param("id") Long id);
+
+    // Full-text search, served by the ft_products_name_description index and ranked by relevance.
+    // Only ids are selected here; rows are loaded afterwards with findProductDtosByIdIn.
+    @Query(value = "SELECT p.id FROM products p WHERE p.deleted_at IS NULL " +
+            "AND MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE) DESC, p.id",
+            countQuery = "SELECT COUNT(*) FROM products p WHERE p.deleted_at IS NULL " +
+                    "AND MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE)",
+            nativeQuery = true)
+    Page<Long> searchActiveProductIds(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM products p WHERE p.deleted_at IS NULL " +
+            "AND MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE) DESC, p.id",
+            nativeQuery = true)
+    Slice<Long> searchActiveProductIdsSlice(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM products p WHERE p.deleted_at IS NULL " +
+            "AND MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE)",
+            nativeQuery = true)
+    long countSearchActiveProducts(@Param("query") String query);
+
+    @Query(value = "SELECT p.id FROM products p WHERE p.deleted_at IS NULL AND p.id > :afterId " +
+            "AND MATCH(p.name, p.description) AGAINST (:query IN BOOLEAN MODE) ORDER BY p.id",
+            nativeQuery = true)
+    List<Long> searchActiveProductIdsAfter(@Param("afterId") long afterId, @Param("query") String query, Limit limit);
 }
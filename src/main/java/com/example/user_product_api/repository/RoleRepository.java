@@ -3,8 +3,12 @@ package com.example.user_product_api.repository;
 import com.example.user_product_api.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(String name);
+
+    List<Role> findByNameIn(Collection<String> names);
 }
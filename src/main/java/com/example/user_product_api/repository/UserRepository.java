@@ -1,17 +1,27 @@
 package com.example.user_product_api.repository;
 
+import com.example.user_product_api.dto.user.UserDto;
 import com.example.user_product_api.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    @Query("SELECT u FROM User u WHERE u.id = :id AND u.deletedAt IS NULL")
+    Optional<User> findActiveById(@Param("id") Long id);
+
+    @Query("SELECT u FROM User u WHERE u.username = :username AND u.deletedAt IS NULL")
+    Optional<User> findActiveByUsername(@Param("username") String username);
+
     Optional<User> findByEmail(String email);
 
     boolean existsByUsername(String username);
@@ -21,4 +31,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL " +
             "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%)")
     Page<User> findAllActiveUsers(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL " +
+            "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%)")
+    Slice<User> findActiveUsersSlice(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.deletedAt IS NULL " +
+            "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%)")
+    long countActiveUsers(@Param("search") String search);
+
+    // Listing projections without the roles collection, so no per-user role query follows
+    @Query(value = "SELECT new com.example.user_product_api.dto.user.UserDto(" +
+            "u.id, u.name, u.username, u.email, u.createdAt, u.updatedAt) FROM User u WHERE u.deletedAt IS NULL " +
+            "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%)",
+            countQuery = "SELECT COUNT(u) FROM User u WHERE u.deletedAt IS NULL " +
+                    "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%)")
+    Page<UserDto> findAllActiveUserSummaries(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT new com.example.user_product_api.dto.user.UserDto(" +
+            "u.id, u.name, u.username, u.email, u.createdAt, u.updatedAt) FROM User u WHERE u.deletedAt IS NULL " +
+            "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%)")
+    Slice<UserDto> findActiveUserSummariesSlice(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL AND u.id > :afterId " +
+            "AND (u.name LIKE %:search% OR u.username LIKE %:search% OR u.email LIKE %:search%) ORDER BY u.id")
+    List<User> findActiveUsersAfter(@Param("afterId") long afterId, @Param("search") String search, Limit limit);
 }
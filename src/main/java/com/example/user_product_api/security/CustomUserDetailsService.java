@@ -21,8 +21,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .filter(u -> u.getDeletedAt() == null)
+        User user = userRepository.findActiveByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
         List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
@@ -35,4 +34,15 @@ public class CustomUserDetailsService implements UserDetailsService {
                 authorities
         );
     }
+
+    // Called by PasswordAuthenticator with the freshly encoded password after a login whose stored hash is outdated
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findActiveByUsername(userDetails.getUsername())
+                .ifPresent(user -> user.setPassword(newPassword));
+
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
 }
@@ -1,12 +1,17 @@
 package com.example.user_product_api.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -14,12 +19,42 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final TokenRevocationList tokenRevocationList;
+
+    // Built once, the filter runs on every request
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+    private final Timer databaseUserTimer;
+    private final Timer claimsUserTimer;
+
+    @Value("${jwt.stateless}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   CustomUserDetailsService customUserDetailsService,
+                                   UserPrincipalCache userPrincipalCache,
+                                   TokenRevocationList tokenRevocationList,
+                                   MeterRegistry registry) {
+        this.tokenProvider = tokenProvider;
+        this.customUserDetailsService = customUserDetailsService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.tokenRevocationList = tokenRevocationList;
+
+        this.validTokenTimer = tokenVerifyTimer("valid", registry);
+        this.invalidTokenTimer = tokenVerifyTimer("invalid", registry);
+        this.databaseUserTimer = userLoadTimer("database", registry);
+        this.claimsUserTimer = userLoadTimer("claims", registry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -27,15 +62,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? verifyToken(jwt) : null;
 
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (claims != null) {
+                UserDetails userDetails = stateless
+                        ? claimsUserTimer.record(() -> loadUserFromClaims(claims))
+                        : databaseUserTimer.record(() -> loadUserFromDatabase(claims.getSubject()));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -44,6 +84,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Claims verifyToken(String jwt) {
+        long start = System.nanoTime();
+        Claims claims = tokenProvider.verifyToken(jwt).orElse(null);
+        (claims != null ? validTokenTimer : invalidTokenTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    private UserDetails loadUserFromDatabase(String username) {
+        return userPrincipalCache.get(username, customUserDetailsService::loadUserByUsername);
+    }
+
+    // Stateless mode trusts the signed claims and only consults the in-memory revocation list
+    private UserDetails loadUserFromClaims(Claims claims) {
+        String username = claims.getSubject();
+        if (tokenRevocationList.isRevoked(username, claims.getIssuedAt())) {
+            return null;
+        }
+
+        String roles = claims.get("roles", String.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of() : Arrays.stream(roles.split(","))
+                .filter(StringUtils::hasText)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new User(username, "", authorities);
+    }
+
+    private static Timer tokenVerifyTimer(String outcome, MeterRegistry registry) {
+        return Timer.builder("auth.token.verify")
+                .description("Time spent verifying a bearer token")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer userLoadTimer(String source, MeterRegistry registry) {
+        return Timer.builder("auth.user.load")
+                .description("Time spent resolving the principal of a verified token")
+                .tag("source", source)
+                .register(registry);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
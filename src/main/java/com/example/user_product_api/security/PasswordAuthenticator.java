@@ -0,0 +1,68 @@
+package com.example.user_product_api.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Username/password login with only the hashing on the password hashing pool: the user is looked up on the
+// calling thread, the check (plus the re-hash of an outdated stored hash) runs on the pool, and the re-hash
+// write continues on the application task executor. Like DaoAuthenticationProvider, an unknown username still
+// costs one hash check and fails the same way as a wrong password.
+@Component
+@RequiredArgsConstructor
+public class PasswordAuthenticator {
+    private final CustomUserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Executor applicationTaskExecutor;
+    private final UserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    private volatile String unknownUserHash;
+
+    public CompletableFuture<Authentication> authenticate(String username, String password) {
+        UserDetails user = findUser(username);
+
+        return passwordHashingExecutor.submit(() -> verify(user, password))
+                .thenApplyAsync(upgradedHash -> authenticated(user, upgradedHash), applicationTaskExecutor);
+    }
+
+    private UserDetails findUser(String username) {
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(username);
+            accountStatusChecker.check(user);
+            return user;
+        } catch (UsernameNotFoundException ex) {
+            return null;
+        }
+    }
+
+    // Returns the new hash when the stored one uses an outdated algorithm or cost, otherwise null
+    private String verify(UserDetails user, String password) {
+        if (user == null) {
+            if (unknownUserHash == null) {
+                unknownUserHash = passwordEncoder.encode("unknown-user");
+            }
+            passwordEncoder.matches(password, unknownUserHash);
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return passwordEncoder.upgradeEncoding(user.getPassword()) ? passwordEncoder.encode(password) : null;
+    }
+
+    private Authentication authenticated(UserDetails user, String upgradedHash) {
+        UserDetails principal = upgradedHash == null ? user : userDetailsService.updatePassword(user, upgradedHash);
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+}
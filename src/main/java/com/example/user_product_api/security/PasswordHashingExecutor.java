@@ -0,0 +1,65 @@
+package com.example.user_product_api.security;
+
+import com.example.user_product_api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs password hashing and verification on a small fixed pool with a bounded queue, so a burst of logins
+// or sign-ups can't occupy the request threads that serve everything else. When the queue is full the
+// work is refused immediately with a 503 instead of piling up. Submit the hash alone and continue any
+// database work on another executor; the duration timer measures exactly what was submitted.
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Counter rejections;
+
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity}") int queueCapacity,
+                                   MeterRegistry registry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.rejections = Counter.builder("password.hashing.rejected")
+                .description("Password operations refused because the queue was full")
+                .register(registry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password operations waiting for a thread")
+                .register(registry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashTimer.record(task), executor);
+        } catch (RejectedExecutionException ex) {
+            rejections.increment();
+            throw new ServiceUnavailableException("Too many password operations in progress, please retry shortly");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
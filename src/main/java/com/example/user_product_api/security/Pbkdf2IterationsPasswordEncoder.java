@@ -0,0 +1,65 @@
+package com.example.user_product_api.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// PBKDF2-SHA256 hashes stored as "iterations$hex". Pbkdf2PasswordEncoder keeps the iteration count out of the
+// hash and never asks for an upgrade, so raising security.password.pbkdf2.iterations would otherwise neither
+// re-hash old passwords nor still verify them. Hashes without a count predate this format: they are checked
+// with the configured count and always upgraded.
+public class Pbkdf2IterationsPasswordEncoder implements PasswordEncoder {
+    private static final char SEPARATOR = '$';
+
+    private final int iterations;
+    private final Map<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+    public Pbkdf2IterationsPasswordEncoder(int iterations) {
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + String.valueOf(SEPARATOR) + encoder(iterations).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        int separator = encodedPassword.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return encoder(iterations).matches(rawPassword, encodedPassword);
+        }
+        Integer storedIterations = storedIterations(encodedPassword, separator);
+        return storedIterations != null
+                && encoder(storedIterations).matches(rawPassword, encodedPassword.substring(separator + 1));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        int separator = encodedPassword.indexOf(SEPARATOR);
+        Integer storedIterations = separator < 0 ? null : storedIterations(encodedPassword, separator);
+        return storedIterations == null || storedIterations < iterations;
+    }
+
+    private Pbkdf2PasswordEncoder encoder(int iterations) {
+        return encoders.computeIfAbsent(iterations, count -> new Pbkdf2PasswordEncoder("", 16, count,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+
+    private static Integer storedIterations(String encodedPassword, int separator) {
+        try {
+            int storedIterations = Integer.parseInt(encodedPassword, 0, separator, 10);
+            return storedIterations > 0 ? storedIterations : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.user_product_api.security;
+
+import com.example.user_product_api.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+// Per-node deny list for stateless authentication: tokens issued before a user's watermark are rejected.
+// Entries only need to outlive the tokens they revoke, so they expire after jwt.expiration.
+@Component
+public class TokenRevocationList {
+    private final Cache<String, Instant> watermarks;
+
+    public TokenRevocationList(@Value("${jwt.expiration}") long jwtExpiration) {
+        this.watermarks = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+    }
+
+    public void revokeTokensIssuedBefore(String username, Instant watermark) {
+        watermarks.asMap().merge(username, watermark, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    // "iat" has second precision, so a token issued in the same second as the revocation is rejected too
+    public boolean isRevoked(String username, Date issuedAt) {
+        Instant watermark = watermarks.getIfPresent(username);
+        return watermark != null && (issuedAt == null || issuedAt.toInstant().isBefore(watermark));
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.invalidatesTokens()) {
+            revokeTokensIssuedBefore(event.getUsername(), Instant.now());
+        }
+    }
+}
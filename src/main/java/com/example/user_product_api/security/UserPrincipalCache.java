@@ -0,0 +1,60 @@
+package com.example.user_product_api.security;
+
+import com.example.user_product_api.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class UserPrincipalCache implements MeterBinder {
+    private final Cache<String, UserDetails> cache;
+
+    public UserPrincipalCache(@Value("${security.principal-cache.maximum-size}") long maximumSize,
+                              @Value("${security.principal-cache.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, key -> {
+            UserDetails userDetails = loader.apply(key);
+            // Password hashes are only needed at login, never keep them in memory here
+            if (userDetails instanceof CredentialsContainer credentialsContainer) {
+                credentialsContainer.eraseCredentials();
+            }
+            return userDetails;
+        });
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "principals");
+    }
+}
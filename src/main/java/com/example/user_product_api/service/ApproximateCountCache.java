@@ -0,0 +1,36 @@
+package com.example.user_product_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Short-lived COUNT(*) results per listing and search term, used by CountMode.APPROXIMATE
+@Component
+public class ApproximateCountCache implements MeterBinder {
+    private final Cache<String, Long> counts;
+
+    public ApproximateCountCache(@Value("${listing.approximate-count.maximum-size}") long maximumSize,
+                                 @Value("${listing.approximate-count.ttl}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public long get(String listing, String search, LongSupplier counter) {
+        return counts.get(listing + ":" + search, key -> counter.getAsLong());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, counts, "approximateCounts");
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursors: the last id of a page, base64url-encoded so clients don't build them by hand
+final class CursorCodec {
+    private CursorCodec() {
+    }
+
+    static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
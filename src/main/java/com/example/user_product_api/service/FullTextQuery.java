@@ -0,0 +1,25 @@
+package com.example.user_product_api.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// Turns free-text input into a MySQL boolean-mode query: every word is required and prefix-matched,
+// so "wire key" finds "Wireless Keyboard" while typing. Boolean operators in the input are dropped.
+final class FullTextQuery {
+    private static final int MAX_TERMS = 10;
+
+    private FullTextQuery() {
+    }
+
+    static String toBooleanPrefixQuery(String search) {
+        if (search == null) {
+            return "";
+        }
+        return Arrays.stream(search.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> "+" + term + "*")
+                .collect(Collectors.joining(" "));
+    }
+}
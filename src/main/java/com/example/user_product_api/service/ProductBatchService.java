@@ -0,0 +1,110 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.dto.product.ProductBatchResult;
+import com.example.user_product_api.dto.product.ProductBatchUpdateDto;
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Applies admin batch changes with set-based UPDATE statements, one transaction per chunk of ids
+@Service
+@RequiredArgsConstructor
+public class ProductBatchService {
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.batch.chunk-size}")
+    private int chunkSize;
+
+    // Items that share the same price/stock change are written with a single UPDATE ... WHERE id IN (...)
+    public ProductBatchResult updateProducts(List<ProductBatchUpdateDto.Item> items) {
+        Map<Long, ProductBatchUpdateDto.Item> itemsById = new LinkedHashMap<>();
+        items.forEach(item -> itemsById.put(item.getId(), item));
+
+        ProductBatchResult result = new ProductBatchResult();
+        for (List<Long> chunk : chunks(itemsById.keySet())) {
+            Set<Long> updated = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> activeIds = productRepository.lockActiveIdsByIdIn(chunk);
+
+                Map<ChangeSet, List<Long>> idsByChange = activeIds.stream()
+                        .collect(Collectors.groupingBy(id -> ChangeSet.of(itemsById.get(id))));
+                idsByChange.forEach((change, ids) ->
+                        productRepository.updatePriceAndStockByIdIn(ids, change.price(), change.stock(), now));
+
+                eventPublisher.publishEvent(new ProductChangedEvent(activeIds));
+                return new HashSet<>(activeIds);
+            });
+            record(result, chunk, updated, ProductBatchResult.Status.UPDATED);
+        }
+        return result;
+    }
+
+    public ProductBatchResult deleteProducts(List<Long> ids) {
+        ProductBatchResult result = new ProductBatchResult();
+        for (List<Long> chunk : chunks(new LinkedHashSet<>(ids))) {
+            Set<Long> deleted = transactionTemplate.execute(status -> {
+                List<Long> activeIds = productRepository.lockActiveIdsByIdIn(chunk);
+                if (!activeIds.isEmpty()) {
+                    productRepository.softDeleteByIdIn(activeIds, LocalDateTime.now());
+                }
+
+                eventPublisher.publishEvent(new ProductChangedEvent(activeIds));
+                return new HashSet<>(activeIds);
+            });
+            record(result, chunk, deleted, ProductBatchResult.Status.DELETED);
+        }
+        return result;
+    }
+
+    private List<List<Long>> chunks(Set<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(chunkSize);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static void record(ProductBatchResult result, List<Long> chunk, Set<Long> changed,
+                               ProductBatchResult.Status status) {
+        for (Long id : chunk) {
+            if (changed.contains(id)) {
+                result.setSucceeded(result.getSucceeded() + 1);
+                result.getOutcomes().add(new ProductBatchResult.Outcome(id, status));
+            } else {
+                result.setNotFound(result.getNotFound() + 1);
+                result.getOutcomes().add(new ProductBatchResult.Outcome(id, ProductBatchResult.Status.NOT_FOUND));
+            }
+        }
+    }
+
+    private record ChangeSet(BigDecimal price, Integer stock) {
+        static ChangeSet of(ProductBatchUpdateDto.Item item) {
+            return new ChangeSet(item.getPrice(), item.getStock());
+        }
+    }
+}
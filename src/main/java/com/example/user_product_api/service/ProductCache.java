@@ -0,0 +1,66 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.dto.product.ProductDto;
+import com.example.user_product_api.dto.product.ProductVersion;
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Read-through cache of active products by id (Caffeine's W-TinyLFU eviction), invalidated after every write.
+// Versions are kept apart from the products so conditional GETs can be answered without the full product.
+@Component
+public class ProductCache implements MeterBinder {
+    private final Cache<Long, ProductDto> products;
+    private final Cache<Long, ProductVersion> versions;
+
+    public ProductCache(@Value("${product.cache.maximum-size}") long maximumSize,
+                        @Value("${product.cache.ttl}") Duration ttl) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public ProductDto get(Long id, Function<Long, ProductDto> loader) {
+        return products.get(id, loader);
+    }
+
+    public ProductVersion getVersion(Long id, Function<Long, ProductVersion> loader) {
+        return versions.get(id, loader);
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidateAll(event.getProductIds());
+        versions.invalidateAll(event.getProductIds());
+    }
+
+    // Cached products carry their creator's name; user changes are rare enough to simply start over
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        products.invalidateAll();
+        versions.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        CaffeineCacheMetrics.monitor(registry, versions, "productVersions");
+    }
+}
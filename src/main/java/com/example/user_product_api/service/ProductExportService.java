@@ -0,0 +1,57 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.dto.ExportFormat;
+import com.example.user_product_api.dto.FieldSelection;
+import com.example.user_product_api.dto.product.ProductDto;
+import com.example.user_product_api.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes the active catalog row by row from a forward-only cursor, nothing is collected in memory
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .filterProvider(FieldSelection.ALL_FIELDS)
+            .build();
+    private static final String[] CSV_COLUMNS = {
+            "id", "name", "description", "price", "stock", "createdById", "createdByName", "createdAt", "updatedAt"
+    };
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportProducts(ExportFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<ProductDto> products = productRepository.streamActiveProducts();
+             SequenceWriter writer = writerFor(format).writeValues(outputStream)) {
+            Iterator<ProductDto> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+    }
+
+    private ObjectWriter writerFor(ExportFormat format) {
+        if (format == ExportFormat.CSV) {
+            return CSV_MAPPER.writer(CSV_MAPPER.schemaFor(ProductDto.class)
+                    .sortedBy(CSV_COLUMNS)
+                    .withHeader());
+        }
+        return objectMapper.writerFor(ProductDto.class).withRootValueSeparator("\n");
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.dto.product.ProductCreateDto;
+import com.example.user_product_api.dto.product.ProductImportResult;
+import com.example.user_product_api.entity.Product;
+import com.example.user_product_api.entity.User;
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.exception.ResourceNotFoundException;
+import com.example.user_product_api.repository.ProductRepository;
+import com.example.user_product_api.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Streams NDJSON or CSV product rows from the request body and writes them in chunked transactions,
+// so memory use depends on the chunk size and not on the size of the upload
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Ignores unknown columns like Spring's mapper does for NDJSON, so an export can be imported again
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.import.chunk-size}")
+    private int chunkSize;
+
+    // Rows are numbered by line, a malformed line only fails that row
+    public ProductImportResult importNdjson(InputStream inputStream) throws IOException {
+        ImportRun run = new ImportRun(getCurrentUserId());
+        ObjectReader rowReader = objectMapper.readerFor(ProductCreateDto.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(row, rowReader.readValue(line));
+            } catch (JsonProcessingException ex) {
+                run.reject(row, "Malformed row: " + ex.getOriginalMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    // Expects a header line naming at least name, price and stock; rows are numbered from the first data row.
+    // Values that don't map are per-row errors, broken CSV syntax stops the import at that row.
+    public ProductImportResult importCsv(InputStream inputStream) throws IOException {
+        ImportRun run = new ImportRun(getCurrentUserId());
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+
+        try (MappingIterator<ProductCreateDto> rows = CSV_MAPPER.readerFor(ProductCreateDto.class)
+                .with(schema)
+                .readValues(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            long row = 0;
+            while (true) {
+                row++;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    run.accept(row, rows.nextValue());
+                } catch (JsonMappingException ex) {
+                    run.reject(row, "Malformed row: " + ex.getOriginalMessage());
+                } catch (JsonProcessingException ex) {
+                    run.reject(row, "Malformed CSV, import stopped: " + ex.getOriginalMessage());
+                    break;
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    private Long getCurrentUserId() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findActiveByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    private class ImportRun {
+        private final Long ownerId;
+        private final List<ProductCreateDto> chunk = new ArrayList<>();
+        private final List<Long> chunkRows = new ArrayList<>();
+        private final ProductImportResult result = new ProductImportResult();
+
+        private ImportRun(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        void accept(long row, ProductCreateDto productCreateDto) {
+            result.setTotal(result.getTotal() + 1);
+            Set<ConstraintViolation<ProductCreateDto>> violations = validator.validate(productCreateDto);
+            if (!violations.isEmpty()) {
+                recordError(row, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+
+            chunk.add(productCreateDto);
+            chunkRows.add(row);
+            if (chunk.size() >= chunkSize) {
+                writeChunk();
+            }
+        }
+
+        void reject(long row, String message) {
+            result.setTotal(result.getTotal() + 1);
+            recordError(row, message);
+        }
+
+        ProductImportResult finish() {
+            if (!chunk.isEmpty()) {
+                writeChunk();
+            }
+            return result;
+        }
+
+        private void writeChunk() {
+            try {
+                save(chunk);
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException ex) {
+                // One row the database refuses rolls back the whole chunk; saving the rows one by one
+                // keeps the others and reports only the rows that fail
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        save(List.of(chunk.get(i)));
+                        result.setImported(result.getImported() + 1);
+                    } catch (RuntimeException rowEx) {
+                        recordError(chunkRows.get(i),
+                                "Row could not be saved: " + NestedExceptionUtils.getMostSpecificCause(rowEx).getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            chunkRows.clear();
+        }
+
+        private void save(List<ProductCreateDto> rows) {
+            transactionTemplate.executeWithoutResult(status -> {
+                User owner = userRepository.getReferenceById(ownerId);
+                List<Product> products = rows.stream()
+                        .map(productCreateDto -> toProduct(productCreateDto, owner))
+                        .collect(Collectors.toList());
+                productRepository.saveAll(products);
+                entityManager.flush();
+                entityManager.clear();
+
+                eventPublisher.publishEvent(new ProductChangedEvent(products.stream()
+                        .map(Product::getId)
+                        .collect(Collectors.toList())));
+            });
+        }
+
+        private void recordError(long row, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new ProductImportResult.RowError(row, message));
+            }
+        }
+    }
+
+    private static Product toProduct(ProductCreateDto productCreateDto, User owner) {
+        Product product = new Product();
+        product.setName(productCreateDto.getName());
+        product.setDescription(productCreateDto.getDescription());
+        product.setPrice(productCreateDto.getPrice());
+        product.setStock(productCreateDto.getStock());
+        product.setCreatedBy(owner);
+        return product;
+    }
+}
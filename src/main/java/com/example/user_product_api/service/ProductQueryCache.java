@@ -0,0 +1,61 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.dto.CountMode;
+import com.example.user_product_api.dto.PagedResponse;
+import com.example.user_product_api.dto.product.ProductDto;
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Finished listing pages keyed by the catalog version they were read at. Any product write bumps the
+// version, which makes every older page unreachable; those entries then age out through size and TTL.
+@Component
+public class ProductQueryCache implements MeterBinder {
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Cache<Key, PagedResponse<ProductDto>> pages;
+
+    public ProductQueryCache(@Value("${product.query-cache.maximum-size}") long maximumSize,
+                             @Value("${product.query-cache.ttl}") Duration ttl) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public PagedResponse<ProductDto> get(String query, int page, int size, CountMode countMode, boolean withDescription,
+                                         Supplier<PagedResponse<ProductDto>> loader) {
+        Key key = new Key(catalogVersion.get(), query, page, size, countMode, withDescription);
+        return pages.get(key, k -> loader.get());
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, "productPages");
+    }
+
+    private record Key(long catalogVersion, String query, int page, int size, CountMode countMode,
+                       boolean withDescription) {
+    }
+}
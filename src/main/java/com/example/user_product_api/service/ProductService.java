@@ -1,59 +1,135 @@
 package com.example.user_product_api.service;
 
+import com.example.user_product_api.dto.CountMode;
+import com.example.user_product_api.dto.CursorPagedResponse;
+import com.example.user_product_api.dto.FieldSelection;
 import com.example.user_product_api.dto.PagedResponse;
 import com.example.user_product_api.dto.product.ProductCreateDto;
 import com.example.user_product_api.dto.product.ProductDto;
 import com.example.user_product_api.dto.product.ProductUpdateDto;
+import com.example.user_product_api.dto.product.ProductVersion;
 import com.example.user_product_api.entity.Product;
 import com.example.user_product_api.entity.User;
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.exception.BadRequestException;
+import com.example.user_product_api.exception.ConflictException;
 import com.example.user_product_api.exception.ResourceNotFoundException;
 import com.example.user_product_api.repository.ProductRepository;
 import com.example.user_product_api.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.method")
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApproximateCountCache approximateCountCache;
+    private final ProductCache productCache;
+    private final ProductQueryCache productQueryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Optional<StockReservationBuffer> stockReservationBuffer;
 
-    @Transactional(readOnly = true)
-    public PagedResponse<ProductDto> getAllProducts(int page, int size, String search) {
+    // Not transactional on purpose: pages served from the query cache must not borrow a connection
+    public PagedResponse<ProductDto> getAllProducts(int page, int size, String search, CountMode countMode,
+                                                    FieldSelection fields) {
+        String query = FullTextQuery.toBooleanPrefixQuery(search);
+        boolean withDescription = fields.includes("description");
+        return productQueryCache.get(query, page, size, countMode, withDescription,
+                () -> loadProducts(page, size, query, countMode, withDescription));
+    }
+
+    // Without the description the summary projection is used, so the column is never read
+    private PagedResponse<ProductDto> loadProducts(int page, int size, String query, CountMode countMode,
+                                                   boolean withDescription) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> productPage = productRepository.findAllActiveProducts(search != null ? search : "", pageable);
+        boolean fullText = !query.isEmpty();
 
-        List<ProductDto> productDtos = productPage.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        if (countMode == CountMode.EXACT) {
+            if (fullText) {
+                Page<Long> idPage = productRepository.searchActiveProductIds(query, pageable);
+                return PagedResponse.exact(idPage, findProductDtosInOrder(idPage.getContent(), withDescription));
+            }
+            Page<ProductDto> productPage = withDescription
+                    ? productRepository.findAllActiveProducts(pageable)
+                    : productRepository.findAllActiveProductSummaries(pageable);
+            return PagedResponse.exact(productPage, productPage.getContent());
+        }
+
+        Slice<?> slice;
+        List<ProductDto> productDtos;
+        if (fullText) {
+            Slice<Long> idSlice = productRepository.searchActiveProductIdsSlice(query, pageable);
+            slice = idSlice;
+            productDtos = findProductDtosInOrder(idSlice.getContent(), withDescription);
+        } else {
+            Slice<ProductDto> productSlice = withDescription
+                    ? productRepository.findActiveProductsSlice(pageable)
+                    : productRepository.findActiveProductSummariesSlice(pageable);
+            slice = productSlice;
+            productDtos = productSlice.getContent();
+        }
 
-        return new PagedResponse<>(
-                productDtos,
-                productPage.getNumber(),
-                productPage.getSize(),
-                productPage.getTotalElements(),
-                productPage.getTotalPages(),
-                productPage.isLast()
-        );
+        if (countMode == CountMode.APPROXIMATE) {
+            long estimatedTotal = approximateCountCache.get("products", query, () -> fullText
+                    ? productRepository.countSearchActiveProducts(query)
+                    : productRepository.countActiveProducts());
+            return PagedResponse.approximate(slice, productDtos, estimatedTotal);
+        }
+        return PagedResponse.uncounted(slice, productDtos);
     }
 
     @Transactional(readOnly = true)
+    public CursorPagedResponse<ProductDto> getProductsAfter(String cursor, int size, String search) {
+        if (size < 1) {
+            throw new BadRequestException("Size must be greater than 0");
+        }
+        if (size > CursorPagedResponse.MAX_SIZE) {
+            throw new BadRequestException("Size must be at most " + CursorPagedResponse.MAX_SIZE);
+        }
+        long afterId = CursorCodec.decode(cursor);
+        String query = FullTextQuery.toBooleanPrefixQuery(search);
+        List<ProductDto> products = query.isEmpty()
+                ? productRepository.findActiveProductsAfter(afterId, Limit.of(size + 1))
+                : findProductDtosInOrder(productRepository.searchActiveProductIdsAfter(afterId, query, Limit.of(size + 1)), true);
+
+        boolean hasNext = products.size() > size;
+        List<ProductDto> productDtos = hasNext ? products.subList(0, size) : products;
+        String nextCursor = hasNext ? CursorCodec.encode(productDtos.get(productDtos.size() - 1).getId()) : null;
+
+        return new CursorPagedResponse<>(productDtos, productDtos.size(), nextCursor, hasNext);
+    }
+
+    // Not transactional on purpose: cache hits must not borrow a connection
     public ProductDto getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .filter(p -> p.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        return productCache.get(id, key -> productRepository.findActiveProductDtoById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + key)));
+    }
 
-        return mapToDto(product);
+    public ProductVersion getProductVersion(Long id) {
+        return productCache.getVersion(id, key -> productRepository.findActiveProductVersionById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + key)));
     }
 
     @Transactional
@@ -68,13 +144,13 @@ public class ProductService {
         product.setCreatedBy(currentUser);
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId()));
         return mapToDto(savedProduct);
     }
 
     @Transactional
     public ProductDto updateProduct(Long id, ProductUpdateDto productUpdateDto) {
-        Product product = productRepository.findById(id)
-                .filter(p -> p.getDeletedAt() == null)
+        Product product = productRepository.findActiveById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
         product.setName(productUpdateDto.getName());
@@ -83,18 +159,88 @@ public class ProductService {
         product.setStock(productUpdateDto.getStock());
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
         return mapToDto(updatedProduct);
     }
 
+    // A conditional UPDATE instead of read-modify-write: no row lock is held between reading and writing stock.
+    // With the reservation buffer enabled nothing touches the database here; the stock shown by other
+    // reads catches up on the buffer's next flush.
+    public ProductDto reserveStock(Long id, int quantity) {
+        if (stockReservationBuffer.isPresent()) {
+            int remaining = stockReservationBuffer.get().reserve(id, quantity);
+            if (remaining < 0) {
+                throw new ConflictException("Insufficient stock for product with id: " + id);
+            }
+            return withStock(getProductById(id), remaining);
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (productRepository.reserveStock(id, quantity, LocalDateTime.now()) == 0) {
+                if (!productRepository.existsActiveById(id)) {
+                    throw new ResourceNotFoundException("Product not found with id: " + id);
+                }
+                throw new ConflictException("Insufficient stock for product with id: " + id);
+            }
+
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
+            return productRepository.findActiveProductDtoById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        });
+    }
+
+    public ProductDto releaseStock(Long id, int quantity) {
+        if (stockReservationBuffer.isPresent()) {
+            int available = stockReservationBuffer.get().release(id, quantity);
+            return withStock(getProductById(id), available);
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (productRepository.releaseStock(id, quantity, LocalDateTime.now()) == 0) {
+                if (!productRepository.existsActiveById(id)) {
+                    throw new ResourceNotFoundException("Product not found with id: " + id);
+                }
+                throw new ConflictException("Stock limit exceeded for product with id: " + id);
+            }
+
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
+            return productRepository.findActiveProductDtoById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        });
+    }
+
     @Transactional
     public void deleteProduct(Long id) {
-        Product product = productRepository.findById(id)
-                .filter(p -> p.getDeletedAt() == null)
+        Product product = productRepository.findActiveById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
         // Implement soft delete
         product.setDeletedAt(LocalDateTime.now());
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
+    }
+
+    // Loads the rows for a page of ids in one statement and keeps the order the ids were ranked in
+    private List<ProductDto> findProductDtosInOrder(List<Long> ids, boolean withDescription) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<ProductDto> productDtos = withDescription
+                ? productRepository.findProductDtosByIdIn(ids)
+                : productRepository.findProductSummariesByIdIn(ids);
+        Map<Long, ProductDto> productDtosById = productDtos.stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        return ids.stream()
+                .map(productDtosById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Cached DTOs are shared, so the buffered stock goes into a copy
+    private ProductDto withStock(ProductDto productDto, int stock) {
+        return new ProductDto(productDto.getId(), productDto.getName(), productDto.getDescription(),
+                productDto.getPrice(), stock, productDto.getCreatedById(), productDto.getCreatedByName(),
+                productDto.getCreatedAt(), productDto.getUpdatedAt());
     }
 
     private ProductDto mapToDto(Product product) {
@@ -114,7 +260,7 @@ public class ProductService {
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
-        return userRepository.findByUsername(username)
+        return userRepository.findActiveByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 }
@@ -0,0 +1,75 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.entity.Role;
+import com.example.user_product_api.event.RolesChangedEvent;
+import com.example.user_product_api.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The roles table is a handful of rows that only change when roles are seeded, so it is kept in memory as
+// an immutable map and swapped as a whole on refresh. The returned entities are detached; they only serve
+// as references when assigning roles to a user.
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+    private final RoleRepository roleRepository;
+
+    private volatile Map<String, Role> rolesByName = Map.of();
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    // Published outside a transaction by the seeder, hence fallbackExecution
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRolesChanged(RolesChangedEvent event) {
+        refresh();
+    }
+
+    public Optional<Role> find(String name) {
+        return Optional.ofNullable(rolesByName.get(name));
+    }
+
+    // Names missing from the map are looked up together in one query, in case roles were added to the
+    // database directly; unknown names are skipped
+    public Set<Role> resolve(Collection<String> names) {
+        Map<String, Role> roles = rolesByName;
+        Set<Role> resolved = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            Role role = roles.get(name);
+            if (role != null) {
+                resolved.add(role);
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Role> found = roleRepository.findByNameIn(missing);
+            if (!found.isEmpty()) {
+                resolved.addAll(found);
+                refresh();
+            }
+        }
+        return resolved;
+    }
+
+    private void refresh() {
+        rolesByName = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.user_product_api.service;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only log of buffered stock changes, split into numbered segment files. A record is
+// (productId, quantity, crc); positive quantities are reservations, negative ones releases.
+// append() returns once the record is on disk. Concurrent appenders share one fsync: whoever finds
+// no sync in progress forces the file for everything written so far while the others wait for it.
+final class StockJournal implements Closeable {
+    private static final int RECORD_SIZE = 16;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final List<Segment> closedSegments = new ArrayList<>();
+
+    private Segment activeSegment;
+    private FileChannel channel;
+    private long activeRecords;
+    private long written;
+    private long durable;
+    private boolean syncing;
+
+    // Segments left over from a previous run are treated as closed; new ones are numbered after them
+    // and after the last segment the database has already applied
+    StockJournal(Path directory, long lastAppliedSequence) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        long lastSequence = lastAppliedSequence;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(StockJournal::isSegment).sorted().toList()) {
+                Segment segment = new Segment(sequenceOf(path), path);
+                closedSegments.add(segment);
+                lastSequence = Math.max(lastSequence, segment.sequence());
+            }
+        }
+        openSegment(lastSequence + 1);
+    }
+
+    void append(long productId, int quantity) throws IOException {
+        long position;
+        lock.lock();
+        try {
+            record.clear();
+            record.putLong(productId).putInt(quantity);
+            crc.reset();
+            crc.update(record.array(), 0, 12);
+            record.putInt((int) crc.getValue());
+            record.flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            activeRecords++;
+            position = ++written;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+    }
+
+    private void awaitDurable(long position) throws IOException {
+        lock.lock();
+        try {
+            while (durable < position) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = written;
+                FileChannel syncedChannel = channel;
+                lock.unlock();
+                try {
+                    syncedChannel.force(false);
+                } finally {
+                    lock.lock();
+                    syncing = false;
+                    synced.signalAll();
+                }
+                durable = Math.max(durable, target);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes the active segment if it has records and returns every closed segment, oldest first
+    List<Segment> rotate() throws IOException {
+        lock.lock();
+        try {
+            if (activeRecords > 0) {
+                closeActiveSegment();
+                closedSegments.add(activeSegment);
+                openSegment(activeSegment.sequence() + 1);
+            }
+            return List.copyOf(closedSegments);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void delete(Segment segment) throws IOException {
+        Files.deleteIfExists(segment.path());
+        lock.lock();
+        try {
+            closedSegments.remove(segment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closeActiveSegment();
+            if (activeRecords == 0) {
+                Files.deleteIfExists(activeSegment.path());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeActiveSegment() throws IOException {
+        while (syncing) {
+            synced.awaitUninterruptibly();
+        }
+        channel.force(false);
+        durable = written;
+        synced.signalAll();
+        channel.close();
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        activeSegment = new Segment(sequence, directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX)));
+        channel = FileChannel.open(activeSegment.path(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeRecords = 0;
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    record Segment(long sequence, Path path) {
+
+        // Net quantity per product. Reading stops at the first torn or corrupt record, which can only be
+        // the tail of a write that was interrupted before it was acknowledged.
+        Map<Long, Long> readDeltas() throws IOException {
+            Map<Long, Long> deltas = new HashMap<>();
+            byte[] bytes = new byte[RECORD_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            CRC32 checksum = new CRC32();
+            try (InputStream inputStream = Files.newInputStream(path);
+                 DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream))) {
+                while (true) {
+                    try {
+                        input.readFully(bytes);
+                    } catch (EOFException ex) {
+                        break;
+                    }
+                    checksum.reset();
+                    checksum.update(bytes, 0, 12);
+                    if (buffer.getInt(12) != (int) checksum.getValue()) {
+                        break;
+                    }
+                    deltas.merge(buffer.getLong(0), (long) buffer.getInt(8), Long::sum);
+                }
+            }
+            deltas.values().removeIf(delta -> delta == 0);
+            return deltas;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.exception.ConflictException;
+import com.example.user_product_api.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Optional in-memory front for products.stock (inventory.buffer.enabled), meant for a single instance.
+// Each product's available stock is spread over striped counters so concurrent reservations rarely
+// touch the same atomic. Every change is journaled before it is acknowledged; the journal is applied
+// to the products table as net deltas per segment on a schedule and on shutdown, and replayed on startup.
+//
+// A product's counters are loaded as "stock in the database minus changes journaled but not yet applied".
+// Loads and flushes exclude each other, so both numbers come from the same side of a flush. Counters
+// are reloaded after every ProductChangedEvent from a write made outside the buffer; the buffer's own flushes
+// keep them.
+@Component
+@ConditionalOnProperty(name = "inventory.buffer.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class StockReservationBuffer {
+    private static final Logger log = LoggerFactory.getLogger(StockReservationBuffer.class);
+    private static final String APPLY_DELTA =
+            "UPDATE products SET stock = stock - ?, version = version + 1, updated_at = ? WHERE id = ?";
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock flushing = new ReentrantLock();
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private StockJournal journal;
+
+    @Value("${inventory.buffer.journal-dir}")
+    private String journalDirectory;
+
+    @PostConstruct
+    public void recover() throws IOException {
+        Long lastApplied = jdbcTemplate.queryForObject("SELECT last_applied_segment FROM stock_journal WHERE id = 1", Long.class);
+        journal = new StockJournal(Path.of(journalDirectory), lastApplied);
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    // Returns the stock left after reserving, or -1 when there isn't enough
+    public int reserve(Long productId, int quantity) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(productId, Entry::new);
+            Slot slot = entry.current();
+            if (slot == null) {
+                continue;
+            }
+            Stripe stripe = slot.homeStripe();
+            stripe.inFlight.incrementAndGet();
+            try {
+                if (slot.retired) {
+                    continue;
+                }
+                if (!slot.take(quantity)) {
+                    return -1;
+                }
+                // Counted as unapplied before it reaches the journal, so a concurrent load can only underestimate
+                entry.unapplied.add(quantity);
+                try {
+                    journal.append(productId, quantity);
+                } catch (IOException ex) {
+                    entry.unapplied.add(-quantity);
+                    slot.put(quantity);
+                    throw new UncheckedIOException("Could not journal stock reservation", ex);
+                }
+                return slot.available();
+            } finally {
+                stripe.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Returns the stock available after releasing
+    public int release(Long productId, int quantity) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(productId, Entry::new);
+            Slot slot = entry.current();
+            if (slot == null) {
+                continue;
+            }
+            Stripe stripe = slot.homeStripe();
+            stripe.inFlight.incrementAndGet();
+            try {
+                if (slot.retired) {
+                    continue;
+                }
+                if (slot.available() > Integer.MAX_VALUE - quantity) {
+                    throw new ConflictException("Stock limit exceeded for product with id: " + productId);
+                }
+                try {
+                    journal.append(productId, -quantity);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not journal stock release", ex);
+                }
+                // Released stock only becomes available once it is journaled
+                entry.unapplied.add(-quantity);
+                slot.put(quantity);
+                return slot.available();
+            } finally {
+                stripe.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.buffer.flush-interval-ms}")
+    public void flush() {
+        flushing.lock();
+        try {
+            for (StockJournal.Segment segment : journal.rotate()) {
+                apply(segment);
+                journal.delete(segment);
+            }
+            // Entries of deleted products, and any others without live counters, go once nothing of theirs
+            // is left in the journal
+            for (Entry entry : entries.values()) {
+                entry.dropIfIdle();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not flush stock journal", ex);
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    // Applies one segment together with its sequence number, so a segment replayed after a crash
+    // between commit and file deletion is skipped
+    private void apply(StockJournal.Segment segment) throws IOException {
+        Map<Long, Long> deltas = segment.readDeltas();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        flushLock.writeLock().lock();
+        try {
+            Set<Long> rejected;
+            try {
+                rejected = transactionTemplate.execute(status -> write(segment, deltas, false));
+            } catch (NonTransientDataAccessException ex) {
+                // A delta the products table can never take must not hold back every later segment,
+                // so the segment is applied row by row and only the failing products are skipped
+                log.warn("Stock journal segment {} could not be applied as a batch, retrying row by row",
+                        segment.sequence(), ex);
+                rejected = transactionTemplate.execute(status -> write(segment, deltas, true));
+            }
+
+            for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+                Entry entry = entries.get(delta.getKey());
+                if (entry != null) {
+                    entry.unapplied.add(-delta.getValue());
+                    // The dropped delta is still in the counters; start over from the database
+                    if (rejected.contains(delta.getKey())) {
+                        entry.retire();
+                    }
+                }
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    // Returns the products whose delta was dropped, which can only happen row by row
+    private Set<Long> write(StockJournal.Segment segment, Map<Long, Long> deltas, boolean rowByRow) {
+        Long lastApplied = jdbcTemplate.queryForObject(
+                "SELECT last_applied_segment FROM stock_journal WHERE id = 1 FOR UPDATE", Long.class);
+        if (lastApplied != null && segment.sequence() <= lastApplied) {
+            return Set.of();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<Long> rejected = new HashSet<>();
+        if (rowByRow) {
+            deltas.forEach((productId, delta) -> {
+                try {
+                    jdbcTemplate.update(APPLY_DELTA, delta, now, productId);
+                } catch (DataAccessException ex) {
+                    log.error("Dropping stock delta {} for product {} from journal segment {}",
+                            delta, productId, segment.sequence(), ex);
+                    rejected.add(productId);
+                }
+            });
+        } else {
+            List<Object[]> updates = new ArrayList<>();
+            deltas.forEach((productId, delta) -> updates.add(new Object[]{delta, now, productId}));
+            jdbcTemplate.batchUpdate(APPLY_DELTA, updates);
+        }
+        jdbcTemplate.update("UPDATE stock_journal SET last_applied_segment = ? WHERE id = 1", segment.sequence());
+
+        eventPublisher.publishEvent(new ProductChangedEvent(List.copyOf(deltas.keySet()), true));
+        return rejected;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockFlush()) {
+            return;
+        }
+        for (Long productId : event.getProductIds()) {
+            Entry entry = entries.get(productId);
+            if (entry != null) {
+                entry.retire();
+            }
+        }
+    }
+
+    private class Entry {
+        private final Long productId;
+        private final LongAdder unapplied = new LongAdder();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Slot slot;
+        private Slot retiredSlot;
+        private boolean dropped;
+
+        private Entry(Long productId) {
+            this.productId = productId;
+        }
+
+        // Null when the entry was dropped from the map; callers look it up again
+        Slot current() {
+            Slot current = slot;
+            return current != null ? current : load();
+        }
+
+        // A lock rather than a monitor: a virtual thread blocked on JDBC inside synchronized would pin its carrier
+        private Slot load() {
+            flushLock.readLock().lock();
+            lock.lock();
+            try {
+                if (slot != null || dropped) {
+                    return slot;
+                }
+                // Changes still running against the old counters must land in "unapplied" first
+                if (retiredSlot != null) {
+                    retiredSlot.awaitQuiescence();
+                    retiredSlot = null;
+                }
+                List<Integer> stock = jdbcTemplate.queryForList(
+                        "SELECT stock FROM products WHERE id = ? AND deleted_at IS NULL", Integer.class, productId);
+                if (stock.isEmpty()) {
+                    removeIfIdle();
+                    throw new ResourceNotFoundException("Product not found with id: " + productId);
+                }
+                slot = new Slot(stock.get(0) - unapplied.sum());
+                return slot;
+            } finally {
+                lock.unlock();
+                flushLock.readLock().unlock();
+            }
+        }
+
+        void dropIfIdle() {
+            if (slot != null) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (slot != null || dropped) {
+                    return;
+                }
+                if (retiredSlot != null) {
+                    retiredSlot.awaitQuiescence();
+                    retiredSlot = null;
+                }
+                removeIfIdle();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Called with the lock held, without a live slot and after the retired one went quiet, so
+        // no change can still reach "unapplied"
+        private void removeIfIdle() {
+            if (unapplied.sum() == 0) {
+                dropped = true;
+                entries.remove(productId, this);
+            }
+        }
+
+        void retire() {
+            lock.lock();
+            try {
+                if (slot != null) {
+                    slot.retired = true;
+                    retiredSlot = slot;
+                    slot = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class Slot {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private volatile boolean retired;
+
+        private Slot(long available) {
+            long remaining = Math.max(0, available);
+            for (int i = 0; i < STRIPES; i++) {
+                long share = remaining / (STRIPES - i);
+                stripes[i] = new Stripe((int) share);
+                remaining -= share;
+            }
+        }
+
+        // Picked at random rather than by thread id: virtual thread ids are short-lived and only ever increase
+        Stripe homeStripe() {
+            return stripes[homeIndex()];
+        }
+
+        // Tries the caller's stripe first, then the others; if no single stripe can cover the quantity
+        // it is gathered across stripes and handed back when the total falls short
+        boolean take(int quantity) {
+            int home = homeIndex();
+            for (int i = 0; i < STRIPES; i++) {
+                AtomicInteger available = stripes[(home + i) & (STRIPES - 1)].available;
+                for (int current = available.get(); current >= quantity; current = available.get()) {
+                    if (available.compareAndSet(current, current - quantity)) {
+                        return true;
+                    }
+                }
+            }
+
+            int gathered = 0;
+            for (int i = 0; i < STRIPES && gathered < quantity; i++) {
+                AtomicInteger available = stripes[(home + i) & (STRIPES - 1)].available;
+                for (int current = available.get(); current > 0 && gathered < quantity; current = available.get()) {
+                    int taken = Math.min(current, quantity - gathered);
+                    if (available.compareAndSet(current, current - taken)) {
+                        gathered += taken;
+                    }
+                }
+            }
+            if (gathered == quantity) {
+                return true;
+            }
+            put(gathered);
+            return false;
+        }
+
+        void put(int quantity) {
+            homeStripe().available.addAndGet(quantity);
+        }
+
+        int available() {
+            long total = 0;
+            for (Stripe stripe : stripes) {
+                total += stripe.available.get();
+            }
+            return (int) Math.min(Integer.MAX_VALUE, total);
+        }
+
+        private static int homeIndex() {
+            return ThreadLocalRandom.current().nextInt(STRIPES);
+        }
+
+        void awaitQuiescence() {
+            for (Stripe stripe : stripes) {
+                while (stripe.inFlight.get() > 0) {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    private static class Stripe {
+        private final AtomicInteger available;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Stripe(int available) {
+            this.available = new AtomicInteger(available);
+        }
+    }
+}
@@ -1,88 +1,145 @@
 package com.example.user_product_api.service;
 
+import com.example.user_product_api.dto.CountMode;
+import com.example.user_product_api.dto.CursorPagedResponse;
+import com.example.user_product_api.dto.FieldSelection;
 import com.example.user_product_api.dto.PagedResponse;
 import com.example.user_product_api.dto.user.UserCreateDto;
 import com.example.user_product_api.dto.user.UserDto;
 import com.example.user_product_api.dto.user.UserUpdateDto;
 import com.example.user_product_api.entity.Role;
 import com.example.user_product_api.entity.User;
+import com.example.user_product_api.event.UserChangedEvent;
+import com.example.user_product_api.exception.BadRequestException;
 import com.example.user_product_api.exception.ResourceNotFoundException;
-import com.example.user_product_api.repository.RoleRepository;
 import com.example.user_product_api.repository.UserRepository;
+import com.example.user_product_api.security.PasswordHashingExecutor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.method")
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final ApproximateCountCache approximateCountCache;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor applicationTaskExecutor;
 
     @Transactional(readOnly = true)
-    public PagedResponse<UserDto> getAllUsers(int page, int size, String search) {
+    public PagedResponse<UserDto> getAllUsers(int page, int size, String search, CountMode countMode,
+                                              FieldSelection fields) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> userPage = userRepository.findAllActiveUsers(search != null ? search : "", pageable);
+        String term = search != null ? search : "";
 
-        List<UserDto> userDtos = userPage.getContent().stream()
+        if (!fields.includes("roles")) {
+            return loadUserSummaries(pageable, term, countMode);
+        }
+
+        if (countMode == CountMode.EXACT) {
+            Page<User> userPage = userRepository.findAllActiveUsers(term, pageable);
+            return PagedResponse.exact(userPage, mapToDtos(userPage));
+        }
+
+        Slice<User> userSlice = userRepository.findActiveUsersSlice(term, pageable);
+        if (countMode == CountMode.APPROXIMATE) {
+            long estimatedTotal = approximateCountCache.get("users", term, () -> userRepository.countActiveUsers(term));
+            return PagedResponse.approximate(userSlice, mapToDtos(userSlice), estimatedTotal);
+        }
+        return PagedResponse.uncounted(userSlice, mapToDtos(userSlice));
+    }
+
+    // Reads the users straight into DTOs, without the eagerly fetched roles
+    private PagedResponse<UserDto> loadUserSummaries(Pageable pageable, String term, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<UserDto> userPage = userRepository.findAllActiveUserSummaries(term, pageable);
+            return PagedResponse.exact(userPage, userPage.getContent());
+        }
+
+        Slice<UserDto> userSlice = userRepository.findActiveUserSummariesSlice(term, pageable);
+        if (countMode == CountMode.APPROXIMATE) {
+            long estimatedTotal = approximateCountCache.get("users", term, () -> userRepository.countActiveUsers(term));
+            return PagedResponse.approximate(userSlice, userSlice.getContent(), estimatedTotal);
+        }
+        return PagedResponse.uncounted(userSlice, userSlice.getContent());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<UserDto> getUsersAfter(String cursor, int size, String search) {
+        if (size < 1) {
+            throw new BadRequestException("Size must be greater than 0");
+        }
+        if (size > CursorPagedResponse.MAX_SIZE) {
+            throw new BadRequestException("Size must be at most " + CursorPagedResponse.MAX_SIZE);
+        }
+        long afterId = CursorCodec.decode(cursor);
+        List<User> users = userRepository.findActiveUsersAfter(afterId, search != null ? search : "", Limit.of(size + 1));
+
+        boolean hasNext = users.size() > size;
+        List<UserDto> userDtos = users.stream()
+                .limit(size)
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
+        String nextCursor = hasNext ? CursorCodec.encode(userDtos.get(userDtos.size() - 1).getId()) : null;
 
-        return new PagedResponse<>(
-                userDtos,
-                userPage.getNumber(),
-                userPage.getSize(),
-                userPage.getTotalElements(),
-                userPage.getTotalPages(),
-                userPage.isLast()
-        );
+        return new CursorPagedResponse<>(userDtos, userDtos.size(), nextCursor, hasNext);
     }
 
     @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .filter(u -> u.getDeletedAt() == null)
+        User user = userRepository.findActiveById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         return mapToDto(user);
     }
 
-    @Transactional
-    public UserDto createUser(UserCreateDto userCreateDto) {
-        // Encode password
+    // The password is hashed on the password hashing pool before a transaction is opened, so no database
+    // connection is held during the hash. The insert continues on the application task executor, which keeps
+    // the pool's threads for hashing only.
+    public CompletableFuture<UserDto> createUser(UserCreateDto userCreateDto) {
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(userCreateDto.getPassword()))
+                .thenApplyAsync(encodedPassword -> transactionTemplate.execute(status -> saveUser(userCreateDto, encodedPassword)),
+                        applicationTaskExecutor);
+    }
+
+    private UserDto saveUser(UserCreateDto userCreateDto, String encodedPassword) {
         User user = new User();
         user.setName(userCreateDto.getName());
         user.setUsername(userCreateDto.getUsername());
         user.setEmail(userCreateDto.getEmail());
-        user.setPassword(passwordEncoder.encode(userCreateDto.getPassword()));
+        user.setPassword(encodedPassword);
 
         // Set roles
-        Set<Role> roles = new HashSet<>();
-        if (userCreateDto.getRoles() == null || userCreateDto.getRoles().isEmpty()) {
-            roleRepository.findByName("ROLE_USER")
+        Set<Role> roles = userCreateDto.getRoles() == null
+                ? new HashSet<>()
+                : roleRegistry.resolve(userCreateDto.getRoles());
+
+        // If no valid roles provided, assign USER role
+        if (roles.isEmpty()) {
+            roleRegistry.find("ROLE_USER")
                     .ifPresent(roles::add);
-        } else {
-            userCreateDto.getRoles().forEach(roleName -> {
-                roleRepository.findByName(roleName)
-                        .ifPresent(roles::add);
-            });
-
-            // If no valid roles provided, assign USER role
-            if (roles.isEmpty()) {
-                roleRepository.findByName("ROLE_USER")
-                        .ifPresent(roles::add);
-            }
         }
 
         user.setRoles(roles);
@@ -93,40 +150,45 @@ public class UserService {
 
     @Transactional
     public UserDto updateUser(Long id, UserUpdateDto userUpdateDto) {
-        User user = userRepository.findById(id)
-                .filter(u -> u.getDeletedAt() == null)
+        User user = userRepository.findActiveById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         user.setName(userUpdateDto.getName());
         user.setEmail(userUpdateDto.getEmail());
 
         // Update roles if provided
+        boolean rolesChanged = false;
         if (userUpdateDto.getRoles() != null && !userUpdateDto.getRoles().isEmpty()) {
-            Set<Role> roles = new HashSet<>();
-            userUpdateDto.getRoles().forEach(roleName -> {
-                roleRepository.findByName(roleName)
-                        .ifPresent(roles::add);
-            });
+            Set<Role> roles = roleRegistry.resolve(userUpdateDto.getRoles());
 
             // Only update if at least one valid role was found
             if (!roles.isEmpty()) {
+                rolesChanged = !roles.equals(user.getRoles());
                 user.setRoles(roles);
             }
         }
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                rolesChanged ? UserChangedEvent.Type.ROLES_CHANGED : UserChangedEvent.Type.UPDATED));
         return mapToDto(updatedUser);
     }
 
     @Transactional
     public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
-                .filter(u -> u.getDeletedAt() == null)
+        User user = userRepository.findActiveById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         // Implement soft delete
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername(), UserChangedEvent.Type.DELETED));
+    }
+
+    private List<UserDto> mapToDtos(Slice<User> users) {
+        return users.getContent().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
     }
 
     private UserDto mapToDto(User user) {
@@ -0,0 +1,2 @@
+-- Optimistic locking column for Product (@Version); conditional stock updates bump it as well
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Last stock journal segment applied to products by the reservation buffer. It is updated in the same
+-- transaction as the stock deltas, so replaying a segment after a crash cannot apply it twice.
+CREATE TABLE stock_journal (
+  id TINYINT PRIMARY KEY,
+  last_applied_segment BIGINT NOT NULL
+);
+INSERT INTO stock_journal (id, last_applied_segment) VALUES (1, 0);
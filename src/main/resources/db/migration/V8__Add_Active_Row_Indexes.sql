@@ -0,0 +1,7 @@
+-- Active listings filter on deleted_at IS NULL and walk the primary key (offset, slice and keyset pages).
+-- InnoDB appends the primary key to secondary indexes, so COUNT(*) of active rows is index-only.
+CREATE INDEX idx_products_deleted_at_id ON products (deleted_at, id);
+CREATE INDEX idx_users_deleted_at_id ON users (deleted_at, id);
+
+-- A creator's active products; also takes over the implicit index backing the user_id foreign key
+CREATE INDEX idx_products_user_id_deleted_at ON products (user_id, deleted_at);
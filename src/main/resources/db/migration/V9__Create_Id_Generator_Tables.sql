@@ -0,0 +1,13 @@
+-- Products and users get their ids from pooled generators so Hibernate can batch inserts.
+-- MySQL has no sequences, so Hibernate keeps each one as a single-row table. The pooled optimizer
+-- hands out [next_val - 49, next_val] per fetch, so next_val starts one allocation block past the
+-- highest existing id.
+CREATE TABLE product_seq (
+  next_val BIGINT
+);
+INSERT INTO product_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM products;
+
+CREATE TABLE user_seq (
+  next_val BIGINT
+);
+INSERT INTO user_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM users;
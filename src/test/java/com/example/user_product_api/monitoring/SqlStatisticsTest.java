@@ -0,0 +1,33 @@
+package com.example.user_product_api.monitoring;
+
+import com.example.user_product_api.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SqlStatisticsTest {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Test
+	void statementsOfTheCurrentRequestAreCounted() {
+		SqlStatistics statistics = SqlStatistics.begin();
+		try {
+			productRepository.count();
+			productRepository.findAll();
+		} finally {
+			SqlStatistics.end();
+		}
+
+		assertThat(statistics.getStatements()).isEqualTo(2);
+		assertThat(statistics.getNanos()).isPositive();
+		assertThat(statistics.getSlowestSql()).containsIgnoringCase("from products");
+	}
+}
@@ -0,0 +1,164 @@
+package com.example.user_product_api.repository;
+
+import com.example.user_product_api.dto.product.ProductDto;
+import com.example.user_product_api.dto.product.ProductVersion;
+import com.example.user_product_api.entity.Product;
+import com.example.user_product_api.entity.Role;
+import com.example.user_product_api.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session.events.auto=com.example.user_product_api.repository.ProductRepositoryTest$BatchCounter"
+})
+class ProductRepositoryTest {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		Role role = new Role();
+		role.setName("ROLE_USER");
+		entityManager.persist(role);
+
+		// 150 products spread over 25 creators, so a page touches many distinct users
+		for (int u = 0; u < 25; u++) {
+			User user = new User();
+			user.setName("User " + u);
+			user.setUsername("user" + u);
+			user.setEmail("user" + u + "@example.com");
+			user.setPassword("secret");
+			user.setRoles(Set.of(role));
+			entityManager.persist(user);
+
+			for (int p = 0; p < 6; p++) {
+				Product product = new Product();
+				product.setName("Product " + u + "-" + p);
+				product.setDescription("Description " + p);
+				product.setPrice(BigDecimal.TEN);
+				product.setStock(p);
+				product.setCreatedBy(user);
+				entityManager.persist(product);
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		BatchCounter.BATCHES.set(0);
+	}
+
+	@Test
+	void productPageIsLoadedWithPageAndCountStatementsOnly() {
+		Page<ProductDto> page = productRepository.findAllActiveProducts(PageRequest.of(0, 100));
+
+		assertThat(page.getContent()).hasSize(100);
+		assertThat(page.getTotalElements()).isEqualTo(150);
+		assertThat(page.getContent()).allSatisfy(productDto -> {
+			assertThat(productDto.getCreatedById()).isNotNull();
+			assertThat(productDto.getCreatedByName()).startsWith("User ");
+		});
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void productSummaryPageLeavesOutTheDescription() {
+		Page<ProductDto> page = productRepository.findAllActiveProductSummaries(PageRequest.of(0, 100));
+
+		assertThat(page.getContent()).hasSize(100);
+		assertThat(page.getContent()).allSatisfy(productDto -> {
+			assertThat(productDto.getDescription()).isNull();
+			assertThat(productDto.getCreatedByName()).startsWith("User ");
+		});
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void productByIdIsLoadedWithOneStatement() {
+		Long id = productRepository.findActiveProductsAfter(0, Limit.of(1)).get(0).getId();
+		statistics.clear();
+
+		assertThat(productRepository.findActiveProductDtoById(id)).isPresent();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void productVersionChangesWithEveryUpdate() {
+		Long id = productRepository.findActiveProductsAfter(0, Limit.of(1)).get(0).getId();
+		statistics.clear();
+
+		ProductVersion before = productRepository.findActiveProductVersionById(id).orElseThrow();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		Product product = productRepository.findActiveById(id).orElseThrow();
+		product.setStock(product.getStock() + 1);
+		entityManager.flush();
+		entityManager.clear();
+
+		ProductVersion after = productRepository.findActiveProductVersionById(id).orElseThrow();
+		assertThat(after.getETag()).isNotEqualTo(before.getETag());
+		assertThat(after.getLastModified()).isGreaterThanOrEqualTo(before.getLastModified());
+	}
+
+	@Test
+	void productInsertsAreSentInJdbcBatches() {
+		User owner = entityManager.createQuery("SELECT u FROM User u WHERE u.username = 'user0'", User.class)
+				.getSingleResult();
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			Product product = new Product();
+			product.setName("Batched " + i);
+			product.setPrice(BigDecimal.ONE);
+			product.setStock(i);
+			product.setCreatedBy(owner);
+			products.add(product);
+		}
+
+		productRepository.saveAll(products);
+		entityManager.flush();
+
+		// hibernate.jdbc.batch_size=50: 50 + 50 + 20
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+		assertThat(BatchCounter.BATCHES).hasValue(3);
+	}
+
+	public static class BatchCounter implements SessionEventListener {
+		static final AtomicInteger BATCHES = new AtomicInteger();
+
+		@Override
+		public void jdbcExecuteBatchStart() {
+			BATCHES.incrementAndGet();
+		}
+	}
+}
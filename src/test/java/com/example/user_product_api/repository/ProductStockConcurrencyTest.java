@@ -0,0 +1,104 @@
+package com.example.user_product_api.repository;
+
+import com.example.user_product_api.entity.Product;
+import com.example.user_product_api.entity.Role;
+import com.example.user_product_api.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every reservation commits in its own transaction, so the test itself must not run inside one
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockConcurrencyTest {
+	private static final int THREADS = 200;
+	private static final int STOCK = 100;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Long productId = transactionTemplate.execute(status -> createProduct());
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger reserved = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				Integer updated = transactionTemplate.execute(status ->
+						productRepository.reserveStock(productId, 1, LocalDateTime.now()));
+				if (updated == 1) {
+					reserved.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		Product product = productRepository.findById(productId).orElseThrow();
+		assertThat(reserved).hasValue(STOCK);
+		assertThat(product.getStock()).isZero();
+		assertThat(product.getVersion()).isEqualTo(STOCK);
+	}
+
+	private Long createProduct() {
+		// Other tests sharing this context commit their rows too
+		Role role = roleRepository.findByName("ROLE_USER").orElseGet(() -> {
+			Role newRole = new Role();
+			newRole.setName("ROLE_USER");
+			return roleRepository.save(newRole);
+		});
+
+		User user = new User();
+		user.setName("Stock Owner");
+		user.setUsername("stock-owner");
+		user.setEmail("stock-owner@example.com");
+		user.setPassword("secret");
+		user.setRoles(Set.of(role));
+		userRepository.save(user);
+
+		Product product = new Product();
+		product.setName("Limited product");
+		product.setPrice(BigDecimal.TEN);
+		product.setStock(STOCK);
+		product.setCreatedBy(user);
+		return productRepository.save(product).getId();
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.user_product_api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+	private JwtTokenProvider tokenProvider;
+	private TokenRevocationList tokenRevocationList;
+	private JwtAuthenticationFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		tokenProvider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "test-secret-key-of-at-least-32-characters");
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 60_000L);
+		ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaximumSize", 100L);
+		tokenProvider.init();
+
+		// Stateless mode never touches the user details service or the principal cache
+		tokenRevocationList = new TokenRevocationList(60_000);
+		filter = new JwtAuthenticationFilter(tokenProvider, null, null, tokenRevocationList, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(filter, "stateless", true);
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void statelessPathAuthenticatesFromTheClaims() throws Exception {
+		String token = tokenFor("alice");
+
+		Authentication authentication = filter(token);
+
+		assertThat(authentication).isNotNull();
+		assertThat(authentication.getName()).isEqualTo("alice");
+		assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+	}
+
+	@Test
+	void statelessPathRejectsARevokedToken() throws Exception {
+		String token = tokenFor("alice");
+		// Revoked in the following second, after the token was issued
+		tokenRevocationList.revokeTokensIssuedBefore("alice", Instant.now().plusSeconds(1));
+
+		assertThat(filter(token)).isNull();
+		assertThat(filter(tokenFor("bob"))).isNotNull();
+	}
+
+	private String tokenFor(String username) {
+		return tokenProvider.generateToken(UsernamePasswordAuthenticationToken.authenticated(
+				username, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+	}
+
+	private Authentication filter(String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		request.addHeader("Authorization", "Bearer " + token);
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(chain.getRequest()).isSameAs(request);
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.user_product_api.security;
+
+import com.example.user_product_api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+	@Test
+	void refusesWorkOnceThePoolAndQueueAreFull() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, registry);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch running = new CountDownLatch(1);
+
+		CompletableFuture<String> busy = executor.submit(() -> {
+			running.countDown();
+			await(release);
+			return "first";
+		});
+		running.await();
+		CompletableFuture<String> queued = executor.submit(() -> "second");
+
+		assertThat(registry.get("password.hashing.queue.size").gauge().value()).isEqualTo(1.0);
+		assertThatThrownBy(() -> executor.submit(() -> "third"))
+				.isInstanceOf(ServiceUnavailableException.class);
+		assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1.0);
+
+		release.countDown();
+		assertThat(busy.get()).isEqualTo("first");
+		assertThat(queued.get()).isEqualTo("second");
+		assertThat(registry.get("password.hashing.duration").timer().count()).isEqualTo(2);
+		executor.shutdown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
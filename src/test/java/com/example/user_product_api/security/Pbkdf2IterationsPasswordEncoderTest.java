@@ -0,0 +1,31 @@
+package com.example.user_product_api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Pbkdf2IterationsPasswordEncoderTest {
+
+	@Test
+	void raisingTheIterationCountUpgradesOlderHashes() {
+		String hash = new Pbkdf2IterationsPasswordEncoder(1000).encode("secret");
+		Pbkdf2IterationsPasswordEncoder raised = new Pbkdf2IterationsPasswordEncoder(2000);
+
+		assertThat(hash).startsWith("1000$");
+		assertThat(raised.matches("secret", hash)).isTrue();
+		assertThat(raised.matches("wrong", hash)).isFalse();
+		assertThat(raised.upgradeEncoding(hash)).isTrue();
+		assertThat(raised.upgradeEncoding(raised.encode("secret"))).isFalse();
+	}
+
+	@Test
+	void hashesWithoutACountAreCheckedWithTheCurrentOneAndUpgraded() {
+		String hash = new Pbkdf2PasswordEncoder("", 16, 1000,
+				Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256).encode("secret");
+		Pbkdf2IterationsPasswordEncoder encoder = new Pbkdf2IterationsPasswordEncoder(1000);
+
+		assertThat(encoder.matches("secret", hash)).isTrue();
+		assertThat(encoder.upgradeEncoding(hash)).isTrue();
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.user_product_api.security;
+
+import com.example.user_product_api.event.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(TokenRevocationList.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationListTest {
+
+	@Autowired
+	private TokenRevocationList tokenRevocationList;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void tokensIssuedInTheRevocationSecondAreRevoked() {
+		TokenRevocationList revocations = new TokenRevocationList(60_000);
+		revocations.revokeTokensIssuedBefore("alice", Instant.parse("2026-01-01T10:00:00.500Z"));
+
+		// "iat" is truncated to the second, so a token issued at 10:00:00.700 carries 10:00:00 as well
+		assertThat(revocations.isRevoked("alice", Date.from(Instant.parse("2026-01-01T09:59:59Z")))).isTrue();
+		assertThat(revocations.isRevoked("alice", Date.from(Instant.parse("2026-01-01T10:00:00Z")))).isTrue();
+		assertThat(revocations.isRevoked("alice", Date.from(Instant.parse("2026-01-01T10:00:01Z")))).isFalse();
+		assertThat(revocations.isRevoked("alice", null)).isTrue();
+		assertThat(revocations.isRevoked("bob", Date.from(Instant.parse("2026-01-01T09:59:59Z")))).isFalse();
+	}
+
+	@Test
+	void theWatermarkIsWrittenOnlyAfterCommit() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Date issuedAt = Date.from(Instant.now().minusSeconds(60));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			eventPublisher.publishEvent(new UserChangedEvent(1L, "rolled-back", UserChangedEvent.Type.DELETED));
+			status.setRollbackOnly();
+		});
+		assertThat(tokenRevocationList.isRevoked("rolled-back", issuedAt)).isFalse();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			eventPublisher.publishEvent(new UserChangedEvent(2L, "committed", UserChangedEvent.Type.ROLES_CHANGED));
+			assertThat(tokenRevocationList.isRevoked("committed", issuedAt)).isFalse();
+		});
+		assertThat(tokenRevocationList.isRevoked("committed", issuedAt)).isTrue();
+	}
+}
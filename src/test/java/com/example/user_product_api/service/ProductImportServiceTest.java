@@ -0,0 +1,142 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.dto.product.ProductImportResult;
+import com.example.user_product_api.entity.Role;
+import com.example.user_product_api.entity.User;
+import com.example.user_product_api.repository.ProductRepository;
+import com.example.user_product_api.repository.RoleRepository;
+import com.example.user_product_api.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductImportServiceTest {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		String username = "importer";
+		if (userRepository.findActiveByUsername(username).isEmpty()) {
+			transactionTemplate.executeWithoutResult(status -> createUser(username));
+		}
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void exportedCsvCanBeImportedAgain() throws Exception {
+		String csv = "id,name,description,price,stock,createdById,createdByName,createdAt,updatedAt\n" +
+				"7,Desk lamp,Warm light,19.90,4,1,Admin,2025-01-01T10:00:00,2025-01-02T10:00:00\n";
+
+		ProductImportResult result = importService(validator()).importCsv(stream(csv));
+
+		assertThat(result.getErrors()).isEmpty();
+		assertThat(result.getImported()).isEqualTo(1);
+	}
+
+	@Test
+	void aRowTheDatabaseRefusesFailsAlone() throws Exception {
+		String longName = "x".repeat(300);
+		String ndjson = "{\"name\":\"Chair\",\"price\":10,\"stock\":1}\n" +
+				"{\"name\":\"" + longName + "\",\"price\":10,\"stock\":1}\n" +
+				"{\"name\":\"Table\",\"price\":20,\"stock\":2}\n";
+
+		// Without validation the long name reaches the database and breaks the chunk
+		ProductImportResult result = importService(Mockito.mock(Validator.class)).importNdjson(stream(ndjson));
+
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getFailed()).isEqualTo(1);
+		assertThat(result.getErrors()).singleElement()
+				.satisfies(error -> assertThat(error.getRow()).isEqualTo(2));
+	}
+
+	@Test
+	void databaseLimitsAreReportedByValidation() throws Exception {
+		String ndjson = "{\"name\":\"Chair\",\"price\":1234567890,\"stock\":1}\n";
+
+		ProductImportResult result = importService(validator()).importNdjson(stream(ndjson));
+
+		assertThat(result.getErrors()).singleElement()
+				.satisfies(error -> assertThat(error.getMessage()).startsWith("price: "));
+	}
+
+	private ProductImportService importService(Validator validator) {
+		ProductImportService service = new ProductImportService(productRepository, userRepository, new ObjectMapper(),
+				validator, transactionTemplate, entityManager, event -> {
+		});
+		ReflectionTestUtils.setField(service, "chunkSize", 1000);
+		return service;
+	}
+
+	private static Validator validator() {
+		LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+		validator.afterPropertiesSet();
+		return validator;
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void createUser(String username) {
+		Role role = roleRepository.findByName("ROLE_USER").orElseGet(() -> {
+			Role newRole = new Role();
+			newRole.setName("ROLE_USER");
+			return roleRepository.save(newRole);
+		});
+
+		User user = new User();
+		user.setName("Importer");
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("secret");
+		user.setRoles(Set.of(role));
+		userRepository.save(user);
+	}
+}
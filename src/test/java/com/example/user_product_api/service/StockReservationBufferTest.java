@@ -0,0 +1,221 @@
+package com.example.user_product_api.service;
+
+import com.example.user_product_api.entity.Product;
+import com.example.user_product_api.entity.Role;
+import com.example.user_product_api.entity.User;
+import com.example.user_product_api.event.ProductChangedEvent;
+import com.example.user_product_api.exception.ResourceNotFoundException;
+import com.example.user_product_api.repository.ProductRepository;
+import com.example.user_product_api.repository.RoleRepository;
+import com.example.user_product_api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationBufferTest {
+	private static final int THREADS = 200;
+	private static final int STOCK = 100;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@TempDir
+	private Path journalDirectory;
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_journal (id TINYINT PRIMARY KEY, last_applied_segment BIGINT NOT NULL)");
+		jdbcTemplate.update("MERGE INTO stock_journal (id, last_applied_segment) KEY (id) VALUES (1, 0)");
+	}
+
+	@Test
+	void concurrentReservationsNeverOversellAndAreFlushed() throws Exception {
+		Long productId = transactionTemplate.execute(status -> createProduct("buffer-owner"));
+		StockReservationBuffer buffer = startBuffer();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger reserved = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				if (buffer.reserve(productId, 1) >= 0) {
+					reserved.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertThat(reserved).hasValue(STOCK);
+		assertThat(stockOf(productId)).isEqualTo(STOCK);
+
+		buffer.flush();
+		assertThat(stockOf(productId)).isZero();
+		assertThat(buffer.release(productId, 5)).isEqualTo(5);
+		buffer.shutdown();
+		assertThat(stockOf(productId)).isEqualTo(5);
+	}
+
+	@Test
+	void journaledReservationsAreAppliedAfterARestart() throws Exception {
+		Long productId = transactionTemplate.execute(status -> createProduct("recovery-owner"));
+		StockReservationBuffer crashed = startBuffer();
+		crashed.reserve(productId, 30);
+		crashed.release(productId, 10);
+
+		// No flush and no shutdown: the next instance finds the segment on disk
+		StockReservationBuffer restarted = startBuffer();
+		assertThat(stockOf(productId)).isEqualTo(STOCK - 20);
+		assertThat(restarted.reserve(productId, STOCK - 20)).isZero();
+		assertThat(restarted.reserve(productId, 1)).isEqualTo(-1);
+		restarted.shutdown();
+		assertThat(stockOf(productId)).isZero();
+	}
+
+	@Test
+	void aDeltaTheTableRejectsDoesNotHoldBackTheJournal() throws Exception {
+		Long overflowingId = transactionTemplate.execute(status -> createProduct("overflow-owner"));
+		Long regularId = transactionTemplate.execute(status -> createProduct("regular-owner"));
+		StockReservationBuffer buffer = startBuffer();
+		buffer.release(overflowingId, 1000);
+		buffer.reserve(regularId, 10);
+
+		// Written behind the buffer's back, so the journaled release no longer fits the column
+		jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = ?", Integer.MAX_VALUE - 10, overflowingId);
+		buffer.flush();
+		assertThat(stockOf(overflowingId)).isEqualTo(Integer.MAX_VALUE - 10);
+		assertThat(stockOf(regularId)).isEqualTo(STOCK - 10);
+
+		buffer.reserve(regularId, 10);
+		buffer.flush();
+		assertThat(stockOf(regularId)).isEqualTo(STOCK - 20);
+		assertThat(buffer.reserve(overflowingId, 10)).isEqualTo(Integer.MAX_VALUE - 20);
+		buffer.shutdown();
+	}
+
+	@Test
+	void missingAndDeletedProductsLeaveNoEntries() throws Exception {
+		Long productId = transactionTemplate.execute(status -> createProduct("deleted-owner"));
+		StockReservationBuffer buffer = startBuffer();
+		Map<?, ?> entries = (Map<?, ?>) ReflectionTestUtils.getField(buffer, "entries");
+
+		assertThatThrownBy(() -> buffer.reserve(-1L, 1)).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(entries).isEmpty();
+
+		buffer.reserve(productId, 1);
+		jdbcTemplate.update("UPDATE products SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?", productId);
+		buffer.onProductChanged(ProductChangedEvent.of(productId));
+		buffer.flush();
+		assertThat(entries).isEmpty();
+		assertThatThrownBy(() -> buffer.reserve(productId, 1)).isInstanceOf(ResourceNotFoundException.class);
+		buffer.shutdown();
+	}
+
+	@Test
+	void ownFlushesKeepTheCounters() throws Exception {
+		Long productId = transactionTemplate.execute(status -> createProduct("flush-owner"));
+		AtomicReference<StockReservationBuffer> listener = new AtomicReference<>();
+		StockReservationBuffer buffer = startBuffer(event -> listener.get().onProductChanged((ProductChangedEvent) event));
+		listener.set(buffer);
+
+		buffer.reserve(productId, 10);
+		buffer.flush();
+		// Only a reload would see this
+		jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = ?", STOCK, productId);
+		assertThat(buffer.reserve(productId, 10)).isEqualTo(STOCK - 20);
+		buffer.shutdown();
+	}
+
+	private StockReservationBuffer startBuffer() throws Exception {
+		return startBuffer(event -> {
+		});
+	}
+
+	private StockReservationBuffer startBuffer(ApplicationEventPublisher eventPublisher) throws Exception {
+		StockReservationBuffer buffer = new StockReservationBuffer(jdbcTemplate, transactionTemplate, eventPublisher);
+		ReflectionTestUtils.setField(buffer, "journalDirectory", journalDirectory.toString());
+		buffer.recover();
+		return buffer;
+	}
+
+	private int stockOf(Long productId) {
+		return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+	}
+
+	private Long createProduct(String username) {
+		Role role = roleRepository.findByName("ROLE_USER").orElseGet(() -> {
+			Role newRole = new Role();
+			newRole.setName("ROLE_USER");
+			return roleRepository.save(newRole);
+		});
+
+		User user = new User();
+		user.setName("Buffer Owner");
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("secret");
+		user.setRoles(Set.of(role));
+		userRepository.save(user);
+
+		Product product = new Product();
+		product.setName("Flash sale product");
+		product.setPrice(BigDecimal.TEN);
+		product.setStock(STOCK);
+		product.setCreatedBy(user);
+		return productRepository.save(product).getId();
+	}
+}